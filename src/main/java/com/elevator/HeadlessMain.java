@@ -0,0 +1,190 @@
+package com.elevator;
+
+import com.elevator.config.BuildingConfig;
+import com.elevator.core.Building;
+import com.elevator.core.ExecutionMode;
+import com.elevator.core.Simulation;
+import com.elevator.core.SimulationClock;
+import com.elevator.dispatcher.ElevatorDispatcher;
+import com.elevator.event.CompositeEventListener;
+import com.elevator.event.ElevatorEventListener;
+import com.elevator.event.LoggingEventListener;
+import com.elevator.event.RingEventPump;
+import com.elevator.metrics.PassengerMetrics;
+import com.elevator.metrics.RunStatistics;
+import com.elevator.trace.TraceReader;
+import com.elevator.trace.TraceRecorder;
+import com.elevator.traffic.DailyRates;
+import com.elevator.traffic.Traffic;
+import com.elevator.util.Logger;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// запуск без GUI и без AWT: для серверов без дисплея и пакетных прогонов.
+//   --headless [секунды] [режим] - реальное время (по умолчанию 60 с), режим из ExecutionMode
+//   --virtual [часы]     - виртуальное время, дискретно-событийный движок (по умолчанию рабочий день)
+// здание: --config=файл.properties и/или floors=120 elevators=32 capacity=12 floorTravelTime=800 doorOpenTime=2500
+//         banks=1/2-40:8,1/41-80:8,81:4,81/82-120:8 - банки по зонам ([посадка/]этажи:лифтов, этажи с 1;
+//         здесь третий банк - челноки до sky lobby на 81-м), у каждого свой диспетчер
+// трассы: --seed=N - воспроизводимый поток пассажиров, --record=файл - записать все запросы,
+//         --replay=файл - вместо случайных пассажиров воспроизвести трассу (только с --virtual;
+//         без [часов] - до конца трассы)
+// поток: --traffic=random|up-peak|down-peak|lunch|inter-floor|office|burst (по умолчанию random),
+//        --rate=N - пассажиров в минуту во все часы (иначе офисный суточный график;
+//        без --traffic означает inter-floor),
+//        --rates=8=1200,9=900 - переопределить отдельные часы, --start=07:00 - время суток в начале
+// назначение: --batch=200 - копить вызовы 200 мс и назначать пачкой (по умолчанию - каждый сразу),
+//             --rebalance=1000 - раз в секунду свободные лифты забирают ожидающих у перегруженных
+// подробность лога: -Delevator.log.level=DEBUG|INFO|WARN|ERROR|OFF
+// метрики (ожидание, поездка, загрузка лифтов, задержка диспетчера) - в реальном времени
+// каждые METRICS_PERIOD_SECONDS и в конце прогона
+public class HeadlessMain {
+    private static final Logger log = Logger.getLogger(HeadlessMain.class);
+    private static final int METRICS_PERIOD_SECONDS = 10;
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+
+        BuildingConfig config = BuildingConfig.fromArgs(args);
+        String seed = option(args, "--seed=");
+        String record = option(args, "--record=");
+        String replay = option(args, "--replay=");
+        String traffic = option(args, "--traffic=");
+        String rate = option(args, "--rate=");
+        String rates = option(args, "--rates=");
+        String start = option(args, "--start=");
+        String batch = option(args, "--batch=");
+        String rebalance = option(args, "--rebalance=");
+        List<String> positional = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.contains("=")) {
+                positional.add(arg);
+            }
+        }
+        args = positional.toArray(new String[0]);
+
+        boolean virtual = args.length > 0 && args[0].equals("--virtual");
+        ExecutionMode mode = (!virtual && args.length > 2)
+                ? ExecutionMode.valueOf(args[2])
+                : ExecutionMode.PLATFORM_THREADS;
+
+        RunStatistics statistics = new RunStatistics();
+        SimulationClock clock = new SimulationClock();
+        PassengerMetrics metrics = new PassengerMetrics(config.getElevatorsCount(), clock);
+        // статистика и метрики слушают синхронно (им нужны часы момента события), лог в реальном
+        // времени читает кольца событий лифтов в своём потоке; в виртуальном - синхронно, по порядку
+        ElevatorEventListener listener = virtual
+                ? new CompositeEventListener(new LoggingEventListener(), statistics, metrics)
+                : new CompositeEventListener(statistics, metrics);
+        Building building = new Building(config, listener, mode);
+        Simulation simulation = new Simulation(building, clock,
+                (seed != null) ? new Random(Long.parseLong(seed)) : new Random());
+        if (traffic == null && (rate != null || rates != null)) {
+            traffic = "inter-floor"; // интенсивность задана - пуассоновский поток между любыми этажами
+        } else if ("random".equals(traffic) && (rate != null || rates != null)) {
+            log.warn("--rate и --rates не действуют на --traffic=random (поток раз в 3-9 с)");
+        }
+        if (traffic != null) {
+            DailyRates daily = (rate != null) ? DailyRates.constant(Double.parseDouble(rate)) : DailyRates.office();
+            if (rates != null) {
+                daily = daily.with(rates);
+            }
+            simulation.setTraffic(Traffic.named(traffic, daily));
+        }
+        if (batch != null) {
+            simulation.setBatchWindow(Long.parseLong(batch));
+        }
+        if (rebalance != null) {
+            simulation.setRebalancePeriod(Long.parseLong(rebalance));
+        }
+        if (start != null) {
+            simulation.setStartTimeOfDay(TimeUnit.NANOSECONDS.toMillis(LocalTime.parse(start).toNanoOfDay()));
+        }
+        log.info("Здание: {}", config);
+
+        TraceRecorder recorder = null;
+        if (record != null) {
+            recorder = new TraceRecorder(Path.of(record), config.getTotalFloors());
+            building.getRouter().setTraceRecorder(recorder);
+        }
+
+        long started = System.nanoTime();
+
+        if (virtual && replay != null) {
+            long hours = args.length > 1 ? Long.parseLong(args[1]) : 0;
+            try (TraceReader trace = new TraceReader(Path.of(replay))) {
+                long replayed = simulation.replayVirtual(trace, TimeUnit.HOURS.toMillis(hours));
+                log.info("Воспроизведено запросов из трассы: {}", replayed);
+            }
+        } else if (virtual) {
+            long hours = args.length > 1 ? Long.parseLong(args[1]) : 8;
+            simulation.runVirtual(TimeUnit.HOURS.toMillis(hours));
+            log.info("Виртуальная симуляция: {} ч", hours);
+        } else {
+            long seconds = args.length > 1 ? Long.parseLong(args[1]) : 60;
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduleAtFixedRate(() -> log.info("Метрики:\n{}", metrics),
+                    METRICS_PERIOD_SECONDS, METRICS_PERIOD_SECONDS, TimeUnit.SECONDS);
+
+            RingEventPump logPump = new RingEventPump(building.getElevators(), new LoggingEventListener());
+            logPump.start("event-log");
+            simulation.start();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            simulation.stop();
+            logPump.stop();
+            reporter.shutdownNow();
+            log.info("Симуляция: {} с, режим {}", seconds, mode);
+        }
+
+        if (recorder != null) {
+            building.getRouter().setTraceRecorder(null);
+            recorder.close();
+            log.info("Записано запросов в трассу: {}", recorder.getCount());
+        }
+
+        if (rebalance != null) {
+            long rebalanced = 0;
+            for (ElevatorDispatcher dispatcher : building.getDispatchers()) {
+                rebalanced += dispatcher.getRebalancedCalls();
+            }
+            log.info("Передано вызовов между лифтами: {}", rebalanced);
+        }
+        if (config.isZoned()) {
+            log.info("Пересадок между банками: {}", building.getRouter().getTransfers());
+        }
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        // итог печатается после всего, что ещё лежит в буфере логгера
+        Logger.flush();
+        System.out.println("Итог: " + statistics + ", реальное время: " + elapsed + " мс");
+        if (Logger.getDropped() > 0) {
+            System.out.println("Лог: буфер переполнялся, пропущено сообщений: " + Logger.getDropped());
+        }
+        System.out.println(metrics);
+    }
+
+    // значение аргумента вида --имя=значение или null
+    private static String option(String[] args, String prefix) {
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return null;
+    }
+}
@@ -3,41 +3,69 @@
 package com.elevator;
 
 
+import com.elevator.config.BuildingConfig;
 import com.elevator.gui.ElevatorGUI;
 import com.elevator.core.Building;
 import com.elevator.core.Simulation;
+import com.elevator.event.CompositeEventListener;
+import com.elevator.event.ElevatorEventListener;
+import com.elevator.event.LoggingEventListener;
+import com.elevator.event.RingEventPump;
+import com.elevator.request.Request;
+import com.elevator.util.Logger;
+import java.io.IOException;
 import javax.swing.SwingUtilities;
 
 public class Main {
-    public static void main(String[] args) {
+    private static final Logger log = Logger.getLogger(Main.class);
+
+    public static void main(String[] args) throws IOException {
+        // --headless / --virtual - без GUI, см. HeadlessMain
+        if (args.length > 0 && (args[0].equals("--headless") || args[0].equals("--virtual"))) {
+            HeadlessMain.main(args);
+            return;
+        }
+
+        // параметры здания: --config=файл.properties, floors=..., elevators=...
+        BuildingConfig config = BuildingConfig.fromArgs(args);
+
         SwingUtilities.invokeLater(() -> {
 
             try {
                 //GUI
-                ElevatorGUI gui = new ElevatorGUI();
+                ElevatorGUI gui = new ElevatorGUI(config);
                 gui.setVisible(true);
 
-                //создание здания, диспечера
-                Building building = new Building(gui);
+                //создание здания, диспечера; новых пассажиров GUI получает сразу от симуляции
+                Building building = new Building(config, new ElevatorEventListener() {
+                    @Override
+                    public void onPassengerArrived(Request request) {
+                        gui.onPassengerArrived(request);
+                    }
+                });
+                //события лифтов GUI и лог читают из колец лифтов в своём потоке, лифты их не ждут
+                RingEventPump events = new RingEventPump(building.getElevators(),
+                        new CompositeEventListener(gui, new LoggingEventListener()));
+                events.setResyncHandler(() -> gui.resync(building.getElevators()));
+                events.start("gui-events");
                 //симуляция
                 Simulation simulation = new Simulation(building);
 
-                simulation.setGUI(gui);
                 simulation.start();
 
-                System.out.println("Программа работает");
+                log.info("Программа работает");
 
                 gui.addWindowListener(new java.awt.event.WindowAdapter() {
                     @Override
                     public void windowClosing(java.awt.event.WindowEvent windowEvent) {
                         simulation.stop(); // Теперь simulation доступна
-                        System.out.println("Система остановлена");
+                        events.stop();
+                        log.info("Система остановлена");
                     }
                 });
             } catch (Exception e) {
-                System.err.println("Ошибка запуска приложения: " + e.getMessage());
-                e.printStackTrace();
+                log.error("Ошибка запуска приложения", e);
             }
         });
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,210 @@
 package com.elevator.config;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+// параметры здания: передаются через Building во все лифты, диспетчер, симуляцию и GUI,
+// поэтому в одной JVM могут жить здания разной высоты.
+// banks - зоны высотного здания (ElevatorBank); без них все лифты обслуживают все этажи
 public class BuildingConfig {
-    public static final int TOTAL_FLOORS = 15  ;           // N этажей
-    public static final int ELEVATORS_COUNT = 4;         // M лифтов
-    public static final int ELEVATOR_CAPACITY = 8;
+    // значения по умолчанию - офис на 15 этажей
+    public static final int DEFAULT_TOTAL_FLOORS = 15;           // N этажей
+    public static final int DEFAULT_ELEVATORS_COUNT = 4;         // M лифтов
+    public static final int DEFAULT_ELEVATOR_CAPACITY = 8;
+    public static final int DEFAULT_FLOOR_TRAVEL_TIME = 1000;    // мс на этаж
+    public static final int DEFAULT_DOOR_OPEN_TIME = 2000;       // мс цикл дверей
+    public static final int MAX_TOTAL_FLOORS = 1 << 16;          // целевой этаж ожидающего - 16 бит
 
     public static final int BASE_FLOOR_HEIGHT = 60;
     public static final int BASE_ELEVATOR_WIDTH = 40;
     public static final int BASE_ELEVATOR_HEIGHT = 70;
 
+    // ключи в .properties и в аргументах командной строки (ключ=значение)
+    public static final String FLOORS = "floors";
+    public static final String ELEVATORS = "elevators";
+    public static final String CAPACITY = "capacity";
+    public static final String FLOOR_TRAVEL_TIME = "floorTravelTime";
+    public static final String DOOR_OPEN_TIME = "doorOpenTime";
+    public static final String BANKS = "banks";   // banks=1/2-20:4,1/21-40:4 - лифтов = сумма по банкам
+
+    private final int totalFloors;
+    private final int elevatorsCount;
+    private final int elevatorCapacity;
+    private final int floorTravelTime;
+    private final int doorOpenTime;
+    private final List<ElevatorBank> banks; // пусто - один банк на все этажи
+
+    public BuildingConfig(int totalFloors, int elevatorsCount, int elevatorCapacity,
+                          int floorTravelTime, int doorOpenTime) {
+        this(totalFloors, elevatorsCount, elevatorCapacity, floorTravelTime, doorOpenTime, List.of());
+    }
+
+    // с банками количество лифтов берётся из них, elevatorsCount не используется
+    public BuildingConfig(int totalFloors, int elevatorsCount, int elevatorCapacity,
+                          int floorTravelTime, int doorOpenTime, List<ElevatorBank> banks) {
+        if (!banks.isEmpty()) {
+            elevatorsCount = 0;
+            for (ElevatorBank bank : banks) {
+                elevatorsCount += bank.getElevatorsCount();
+            }
+        }
+        if (totalFloors < 2 || totalFloors > MAX_TOTAL_FLOORS) {
+            throw new IllegalArgumentException("Этажей должно быть от 2 до " + MAX_TOTAL_FLOORS + ": " + totalFloors);
+        }
+        if (elevatorsCount < 1) {
+            throw new IllegalArgumentException("Нужен хотя бы один лифт: " + elevatorsCount);
+        }
+        if (elevatorCapacity < 1) {
+            throw new IllegalArgumentException("Вместимость должна быть положительной: " + elevatorCapacity);
+        }
+        if (floorTravelTime < 0 || doorOpenTime < 0) {
+            throw new IllegalArgumentException("Время не может быть отрицательным");
+        }
+        this.totalFloors = totalFloors;
+        this.elevatorsCount = elevatorsCount;
+        this.elevatorCapacity = elevatorCapacity;
+        this.floorTravelTime = floorTravelTime;
+        this.doorOpenTime = doorOpenTime;
+        this.banks = List.copyOf(banks);
+        validateBanks();
+    }
+
+    // каждый этаж должен обслуживать хотя бы один банк
+    private void validateBanks() {
+        if (banks.isEmpty()) {
+            return;
+        }
+        for (ElevatorBank bank : banks) {
+            if (bank.getLobby() >= totalFloors || bank.getHighestFloor() >= totalFloors) {
+                throw new IllegalArgumentException("Банк " + bank + " выходит за " + totalFloors + " этажей");
+            }
+        }
+        for (int floor = 0; floor < totalFloors; floor++) {
+            boolean served = false;
+            for (ElevatorBank bank : banks) {
+                served |= bank.serves(floor);
+            }
+            if (!served) {
+                throw new IllegalArgumentException("Этаж " + (floor + 1) + " не обслуживает ни один банк");
+            }
+        }
+    }
+
+    public static BuildingConfig defaults() {
+        return new BuildingConfig(DEFAULT_TOTAL_FLOORS, DEFAULT_ELEVATORS_COUNT, DEFAULT_ELEVATOR_CAPACITY,
+                DEFAULT_FLOOR_TRAVEL_TIME, DEFAULT_DOOR_OPEN_TIME);
+    }
+
+    // значения из properties, отсутствующие ключи берутся из этого конфига
+    public BuildingConfig with(Properties properties) {
+        String banksSpec = properties.getProperty(BANKS);
+        return new BuildingConfig(
+                intValue(properties, FLOORS, totalFloors),
+                intValue(properties, ELEVATORS, elevatorsCount),
+                intValue(properties, CAPACITY, elevatorCapacity),
+                intValue(properties, FLOOR_TRAVEL_TIME, floorTravelTime),
+                intValue(properties, DOOR_OPEN_TIME, doorOpenTime),
+                (banksSpec != null) ? ElevatorBank.parse(banksSpec) : banks);
+    }
+
+    // тот же конфиг с другим количеством лифтов, без банков
+    public BuildingConfig withElevatorsCount(int elevatorsCount) {
+        return new BuildingConfig(totalFloors, elevatorsCount, elevatorCapacity, floorTravelTime, doorOpenTime);
+    }
+
+    // тот же конфиг с банками (пустой список - один банк на все этажи)
+    public BuildingConfig withBanks(List<ElevatorBank> banks) {
+        return new BuildingConfig(totalFloors, elevatorsCount, elevatorCapacity, floorTravelTime, doorOpenTime, banks);
+    }
+
+    // конфиг из файла .properties поверх значений по умолчанию
+    public static BuildingConfig load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        return defaults().with(properties);
+    }
+
+    // конфиг из командной строки: --config=файл.properties, затем переопределения ключ=значение
+    public static BuildingConfig fromArgs(String[] args) {
+        BuildingConfig config = defaults();
+        for (String arg : args) {
+            if (arg.startsWith("--config=")) {
+                Path file = Path.of(arg.substring("--config=".length()));
+                try {
+                    config = load(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Не удалось прочитать конфиг " + file, e);
+                }
+            }
+        }
+        return config.withArgs(args);
+    }
+
+    // аргументы вида ключ=значение поверх этого конфига; остальные аргументы пропускаются
+    public BuildingConfig withArgs(String[] args) {
+        Properties properties = new Properties();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0 && !arg.startsWith("-")) {
+                properties.setProperty(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+        return with(properties);
+    }
+
+    private static int intValue(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверное значение " + key + "=" + value, e);
+        }
+    }
+
+    public int getTotalFloors() {
+        return totalFloors;
+    }
+
+    public int getElevatorsCount() {
+        return elevatorsCount;
+    }
+
+    public int getElevatorCapacity() {
+        return elevatorCapacity;
+    }
+
+    public int getFloorTravelTime() {
+        return floorTravelTime;
+    }
+
+    public int getDoorOpenTime() {
+        return doorOpenTime;
+    }
+
+    // банки лифтов; без зон - один банк: посадка на первом этаже, все этажи, все лифты
+    public List<ElevatorBank> getBanks() {
+        return banks.isEmpty() ? List.of(new ElevatorBank(0, 0, totalFloors - 1, elevatorsCount)) : banks;
+    }
+
+    public boolean isZoned() {
+        return !banks.isEmpty();
+    }
 
-    private BuildingConfig() {}
-}
\ No newline at end of file
+    @Override
+    public String toString() {
+        return "BuildingConfig{floors=" + totalFloors + ", elevators=" + elevatorsCount +
+                ", capacity=" + elevatorCapacity + ", floorTravelTime=" + floorTravelTime +
+                "ms, doorOpenTime=" + doorOpenTime + "ms" +
+                (banks.isEmpty() ? "" : ", banks=" + banks) + "}";
+    }
+}
@@ -0,0 +1,92 @@
+package com.elevator.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// группа лифтов (банк) с общей зоной: этаж посадки (основной или транзитный - sky lobby)
+// и сплошной диапазон этажей. Между посадкой и зоной лифты банка едут без остановок.
+// В конфиге этажи с 1, как в логах и GUI: "1/2-20:4" - 4 лифта с 1-го этажа на 2..20,
+// "20:2" - 2 лифта-челнока 1 <-> 20 (посадка не указана - первый этаж)
+public class ElevatorBank {
+    private final int lobby;          // этажи здесь с 0
+    private final int lowestFloor;
+    private final int highestFloor;
+    private final int elevatorsCount;
+
+    public ElevatorBank(int lobby, int lowestFloor, int highestFloor, int elevatorsCount) {
+        if (lobby < 0 || lowestFloor < 0 || lowestFloor > highestFloor) {
+            throw new IllegalArgumentException("Неверная зона банка: посадка " + (lobby + 1) +
+                    ", этажи " + (lowestFloor + 1) + "-" + (highestFloor + 1));
+        }
+        if (elevatorsCount < 1) {
+            throw new IllegalArgumentException("В банке нужен хотя бы один лифт: " + elevatorsCount);
+        }
+        this.lobby = lobby;
+        this.lowestFloor = lowestFloor;
+        this.highestFloor = highestFloor;
+        this.elevatorsCount = elevatorsCount;
+    }
+
+    // список банков через запятую: [посадка/]с-по:лифтов или [посадка/]этаж:лифтов
+    public static List<ElevatorBank> parse(String spec) {
+        List<ElevatorBank> banks = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String bank = part.trim();
+            if (bank.isEmpty()) {
+                continue;
+            }
+            try {
+                int colon = bank.indexOf(':');
+                if (colon < 0) {
+                    throw new IllegalArgumentException("Нет количества лифтов");
+                }
+                int elevators = Integer.parseInt(bank.substring(colon + 1).trim());
+                String zone = bank.substring(0, colon);
+                int lobby = 0;
+                int slash = zone.indexOf('/');
+                if (slash >= 0) {
+                    lobby = Integer.parseInt(zone.substring(0, slash).trim()) - 1;
+                    zone = zone.substring(slash + 1);
+                }
+                int dash = zone.indexOf('-');
+                int lowest = Integer.parseInt((dash < 0 ? zone : zone.substring(0, dash)).trim()) - 1;
+                int highest = (dash < 0) ? lowest : Integer.parseInt(zone.substring(dash + 1).trim()) - 1;
+                banks.add(new ElevatorBank(lobby, lowest, highest, elevators));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Неверный банк \"" + bank + "\": " + e.getMessage(), e);
+            }
+        }
+        return Collections.unmodifiableList(banks);
+    }
+
+    // лифты банка останавливаются на этаже
+    public boolean serves(int floor) {
+        return floor == lobby || (floor >= lowestFloor && floor <= highestFloor);
+    }
+
+    public int getLobby() {
+        return lobby;
+    }
+
+    public int getLowestFloor() {
+        return lowestFloor;
+    }
+
+    public int getHighestFloor() {
+        return highestFloor;
+    }
+
+    public int getElevatorsCount() {
+        return elevatorsCount;
+    }
+
+    // в формате parse
+    @Override
+    public String toString() {
+        String zone = (lowestFloor == highestFloor)
+                ? String.valueOf(lowestFloor + 1)
+                : (lowestFloor + 1) + "-" + (highestFloor + 1);
+        return (lobby + 1) + "/" + zone + ":" + elevatorsCount;
+    }
+}
@@ -1,48 +1,130 @@
 package com.elevator.core;
 
+import com.elevator.config.ElevatorBank;
+import com.elevator.dispatcher.BankRouter;
 import com.elevator.elevator.Elevator;
-import com.elevator.gui.ElevatorGUI;
+import com.elevator.event.CompositeEventListener;
+import com.elevator.event.ElevatorEventListener;
 import com.elevator.config.BuildingConfig;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.LongSupplier;
 import com.elevator.dispatcher.ElevatorDispatcher;
 
+// здание: лифты по банкам (BuildingConfig.getBanks), у каждого банка свой диспетчер,
+// запросы принимает BankRouter. Без зон - один банк и один диспетчер на все лифты
 public class Building {
     private final List<Elevator> elevators;
-    private final ElevatorDispatcher dispatcher;
+    private final List<ElevatorDispatcher> dispatchers;
+    private final BankRouter router;
+    private final ElevatorEventListener listener;
+    private final BuildingConfig config;
+    private final ExecutionMode executionMode;
+    private final List<Thread> threads = new ArrayList<>();
+    private SharedElevatorScheduler scheduler;
 
-    public Building(ElevatorGUI gui) {
+    // listener получает события всех лифтов: GUI, логи, метрики или ничего (null)
+    public Building(BuildingConfig config, ElevatorEventListener listener) {
+        this(config, listener, ExecutionMode.PLATFORM_THREADS);
+    }
+
+    // executionMode - на чём крутятся управляющие циклы лифтов
+    public Building(BuildingConfig config, ElevatorEventListener listener, ExecutionMode executionMode) {
+        this.config = config;
+        this.listener = (listener != null) ? listener : ElevatorEventListener.NONE;
+        this.executionMode = executionMode;
         this.elevators = new ArrayList<>();
+        this.dispatchers = new ArrayList<>();
 
-        // BuildingConfig.ELEVATORS_COUNT - количество лифтов из конфига
-        for (int i = 0; i < BuildingConfig.ELEVATORS_COUNT; i++) {
-            Elevator elevator = new Elevator(i, gui); //новый лифт с уникальным ID и ссылкой на GUI
+        // в зонированном здании выход пассажира может быть пересадкой - его видит и маршрутизатор
+        // (после метрик, чтобы поездка участка уже была записана)
+        ElevatorEventListener carListener = !config.isZoned() ? this.listener
+                : new CompositeEventListener(this.listener, new ElevatorEventListener() {
+                    @Override
+                    public void onPassengerAlighted(int elevatorId, int floor, long call, long journeyId,
+                                                    long boardedAt) {
+                        router.onLegCompleted(floor, journeyId);
+                    }
+                });
 
-            elevators.add(elevator);
+        // id лифтов сквозные по всем банкам
+        for (ElevatorBank bank : config.getBanks()) {
+            List<Elevator> bankElevators = new ArrayList<>();
+            for (int i = 0; i < bank.getElevatorsCount(); i++) {
+                Elevator elevator = new Elevator(elevators.size(), config, carListener); //новый лифт с уникальным ID и слушателем событий
+
+                bankElevators.add(elevator);
+                elevators.add(elevator);
+            }
+            dispatchers.add(new ElevatorDispatcher(bankElevators, config, this.listener));
         }
 
-        this.dispatcher = new ElevatorDispatcher(elevators);
+        this.router = new BankRouter(config.getBanks(), dispatchers, config.getTotalFloors(), this.listener);
     }
 
     //запуск лифтов и потоков
     public void startElevators() {
-        for (Elevator elevator : elevators) {
-            elevator.start();
+        switch (executionMode) {
+            case PLATFORM_THREADS -> {
+                for (Elevator elevator : elevators) {
+                    threads.add(Thread.ofPlatform().name("elevator-" + (elevator.getElevatorId() + 1)).start(elevator));
+                }
+            }
+            case VIRTUAL_THREADS -> {
+                for (Elevator elevator : elevators) {
+                    threads.add(Thread.ofVirtual().name("elevator-" + (elevator.getElevatorId() + 1)).start(elevator));
+                }
+            }
+            case SHARED_SCHEDULER -> {
+                scheduler = new SharedElevatorScheduler(Runtime.getRuntime().availableProcessors());
+                scheduler.start(elevators);
+            }
         }
     }
 
     //остановка всех лифтов и поток
     public void stopElevators() {
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        threads.clear();
+        if (scheduler != null) {
+            scheduler.stop();
+            scheduler = null;
+        }
+    }
+
+    // часы времени посадки в лифтах и меток следующих участков - те же, что у метрик
+    public void setClock(LongSupplier clock) {
         for (Elevator elevator : elevators) {
-            elevator.interrupt();
+            elevator.setClock(clock);
         }
+        router.setClock(clock);
     }
 
-    public ElevatorDispatcher getDispatcher() {
-        return dispatcher;
+    // сюда приходят все запросы пассажиров
+    public BankRouter getRouter() {
+        return router;
+    }
+
+    // диспетчеры банков, в порядке BuildingConfig.getBanks()
+    public List<ElevatorDispatcher> getDispatchers() {
+        return dispatchers;
     }
 
     public List<Elevator> getElevators() {
         return elevators;
     }
+
+    public BuildingConfig getConfig() {
+        return config;
+    }
+
+    public ElevatorEventListener getListener() {
+        return listener;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
 }
\ No newline at end of file
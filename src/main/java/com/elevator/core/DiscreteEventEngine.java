@@ -0,0 +1,117 @@
+package com.elevator.core;
+
+import com.elevator.elevator.Elevator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// дискретно-событийный движок: очередь событий, упорядоченная по виртуальному времени.
+// Лифты не спят в Thread.sleep - их step() планируется событием через длительность действия,
+// поэтому час работы здания считается за доли секунды.
+public class DiscreteEventEngine {
+    private final PriorityQueue<ScheduledEvent> events = new PriorityQueue<>();
+    private long now; // виртуальное время, мс от начала симуляции
+    private long sequence; // порядок событий с одинаковым временем
+    private long processedEvents;
+
+    //событие в очереди; событие шага лифта одно на лифт и переиспользуется (см. ElevatorDriver)
+    private static class ScheduledEvent implements Comparable<ScheduledEvent> {
+        private long time;
+        private long sequence;
+        private final Runnable action;
+
+        ScheduledEvent(long time, long sequence, Runnable action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(ScheduledEvent other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    // текущее виртуальное время
+    public long now() {
+        return now;
+    }
+
+    // событие через delay мс виртуального времени
+    public void schedule(long delay, Runnable action) {
+        scheduleAt(now + Math.max(0, delay), action);
+    }
+
+    public void scheduleAt(long time, Runnable action) {
+        events.add(new ScheduledEvent(Math.max(time, now), sequence++, action));
+    }
+
+    // повторная постановка готового события, которого сейчас нет в очереди - без аллокаций
+    private void reschedule(ScheduledEvent event, long delay) {
+        event.time = now + Math.max(0, delay);
+        event.sequence = sequence++;
+        events.add(event);
+    }
+
+    // лифты управляются движком: шаг автомата - событие, свободный лифт будится новым запросом
+    public void attachElevators(List<Elevator> elevators) {
+        for (Elevator elevator : elevators) {
+            ElevatorDriver driver = new ElevatorDriver(elevator);
+            elevator.setWakeupHandler(driver::wakeUp);
+        }
+    }
+
+    // выполняет события до момента endTime включительно
+    public void runUntil(long endTime) {
+        while (!events.isEmpty() && events.peek().time <= endTime) {
+            ScheduledEvent event = events.poll();
+            now = event.time;
+            event.action.run();
+            processedEvents++;
+        }
+        now = Math.max(now, endTime);
+    }
+
+    // выполняет все события, пока очередь не опустеет (лифты развезли всех и ждут)
+    public void runToCompletion() {
+        while (!events.isEmpty()) {
+            ScheduledEvent event = events.poll();
+            now = event.time;
+            event.action.run();
+            processedEvents++;
+        }
+    }
+
+    public long getProcessedEvents() {
+        return processedEvents;
+    }
+
+    // связывает лифт с очередью: не даёт запланировать два шага одного лифта одновременно
+    // пока running, событие шага лежит в очереди или выполняется, поэтому одно событие на лифт
+    // переиспользуется и шаги в установившемся режиме ничего не создают
+    private class ElevatorDriver {
+        private final Elevator elevator;
+        private final ScheduledEvent stepEvent = new ScheduledEvent(0, 0, this::step);
+        private boolean running;
+
+        ElevatorDriver(Elevator elevator) {
+            this.elevator = elevator;
+        }
+
+        void wakeUp() {
+            if (!running) {
+                running = true;
+                reschedule(stepEvent, 0);
+            }
+        }
+
+        private void step() {
+            long duration = elevator.step();
+            if (duration < 0) {
+                running = false; // ждёт следующего запроса
+            } else {
+                reschedule(stepEvent, duration);
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.elevator.core;
+
+// как исполняются управляющие циклы лифтов, выбирается при создании Building
+public enum ExecutionMode {
+    PLATFORM_THREADS,  // свой платформенный поток на каждый лифт
+    VIRTUAL_THREADS,   // свой виртуальный поток на каждый лифт
+    SHARED_SCHEDULER   // шаги лифтов - задачи на общем пуле, по потоку на ядро
+}
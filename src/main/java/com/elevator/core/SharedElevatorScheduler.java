@@ -0,0 +1,92 @@
+package com.elevator.core;
+
+import com.elevator.elevator.Elevator;
+import com.elevator.util.Logger;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Все лифты на одном пуле потоков: step() лифта - задача, следующая планируется
+// через длительность действия. Свободный лифт не занимает поток, его будит addRequest.
+public class SharedElevatorScheduler {
+    private static final Logger log = Logger.getLogger(SharedElevatorScheduler.class);
+
+    private final ScheduledExecutorService executor;
+
+    public SharedElevatorScheduler(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "elevator-scheduler-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(List<Elevator> elevators) {
+        for (Elevator elevator : elevators) {
+            ElevatorTask task = new ElevatorTask(elevator);
+            elevator.setWakeupHandler(task::wakeUp);
+            task.wakeUp();
+        }
+    }
+
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    // шаги одного лифта никогда не выполняются параллельно
+    private class ElevatorTask implements Runnable {
+        private final Elevator elevator;
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        ElevatorTask(Elevator elevator) {
+            this.elevator = elevator;
+        }
+
+        void wakeUp() {
+            if (running.compareAndSet(false, true) && !submit(0)) {
+                running.set(false);
+            }
+        }
+
+        // флаг running сбрасывается всегда, когда следующий шаг не запланирован - иначе
+        // wakeUp() больше не разбудит лифт
+        @Override
+        public void run() {
+            boolean scheduled = false;
+            try {
+                long duration = elevator.step();
+                if (duration >= 0) {
+                    scheduled = submit(duration);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                // не перезапускаем сразу, чтобы не крутить ошибку; лифт разбудит следующий запрос
+                log.error("Ошибка шага лифта " + (elevator.getElevatorId() + 1), e);
+                return;
+            } finally {
+                if (!scheduled) {
+                    running.set(false);
+                }
+            }
+            // запрос мог прийти между step() и сбросом флага - тогда его wakeUp() пропущен
+            if (elevator.hasPendingCalls()) {
+                wakeUp();
+            }
+        }
+
+        // false - пул уже остановлен (stop)
+        private boolean submit(long delay) {
+            try {
+                executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -1,38 +1,104 @@
 package com.elevator.core;
 
+import com.elevator.dispatcher.ElevatorDispatcher;
 import com.elevator.request.Request;
 import com.elevator.elevator.Direction;
-import com.elevator.config.BuildingConfig;
+import com.elevator.trace.TraceReader;
+import com.elevator.traffic.ArrivalGenerator;
+import com.elevator.traffic.FixedRateTraffic;
+import com.elevator.util.Logger;
+import java.io.IOException;
 import java.util.Random;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import com.elevator.gui.ElevatorGUI;
-import javax.swing.SwingUtilities;
 
-// генерация случайный этаж, случайное время
+// генерация пассажиров: когда и куда - решает ArrivalGenerator (по умолчанию прежний
+// равномерный поток раз в 3-9 с), время суток для профиля отсчитывается от startTimeOfDay
 public class Simulation {
+    private static final Logger log = Logger.getLogger(Simulation.class);
+    // готовые шаблоны, чтобы не склеивать направление в строку на каждый запрос
+    private static final String NEW_REQUEST_UP = "Новый запрос: пассажир на этаже {} хочет на этаж {} (ВВЕРХ)";
+    private static final String NEW_REQUEST_DOWN = "Новый запрос: пассажир на этаже {} хочет на этаж {} (ВНИЗ)";
+
+    private static final long FIRST_ARRIVAL = 2000; // мс, лифты успевают запуститься
+
     private final Building building;
-    private final Random random = new Random();
+    private final SimulationClock clock;
+    private final Random random;
+    private ArrivalGenerator traffic = new FixedRateTraffic();
+    private long startTimeOfDay = TimeUnit.HOURS.toMillis(7);
+    private long batchWindow; // мс, 0 - диспетчер назначает каждый вызов сразу
+    private long rebalancePeriod; // мс, 0 - вызовы не передаются между лифтами
+    private RebalanceTicker rebalanceTicker; // только в виртуальном времени
     private ScheduledExecutorService scheduler;
-    private ElevatorGUI gui;
 
     public Simulation(Building building) {
+        this(building, new SimulationClock());
+    }
+
+    // clock - общие часы с метриками, runVirtual переключает их на виртуальное время
+    public Simulation(Building building, SimulationClock clock) {
+        this(building, clock, new Random());
+    }
+
+    // random с заданным seed - воспроизводимый поток пассажиров
+    public Simulation(Building building, SimulationClock clock, Random random) {
         this.building = building;
+        this.clock = clock;
+        this.random = random;
+        building.setClock(clock); // посадки и участки после пересадки - в часах симуляции
+    }
+
+    // до start/runVirtual
+    public void setTraffic(ArrivalGenerator traffic) {
+        this.traffic = traffic;
+    }
+
+    // время суток в начале прогона, мс от полуночи - по нему профиль выбирает интенсивность
+    public void setStartTimeOfDay(long startTimeOfDay) {
+        this.startTimeOfDay = startTimeOfDay;
     }
 
+    // пакетное назначение вызовов диспетчером: окно сбора пачки, мс (0 - выключено)
+    public void setBatchWindow(long batchWindow) {
+        this.batchWindow = batchWindow;
+    }
 
-    public void setGUI(ElevatorGUI gui) {
-        this.gui = gui;
+    // как часто свободные лифты забирают ожидающих у перегруженных, мс (0 - выключено)
+    public void setRebalancePeriod(long rebalancePeriod) {
+        this.rebalancePeriod = rebalancePeriod;
     }
 
     //запуск симуляции
     public void start() {
         building.startElevators();
         scheduler = Executors.newScheduledThreadPool(1);
+        if (batchWindow > 0) {
+            setBatching((delay, action) -> scheduler.schedule(action, delay, TimeUnit.MILLISECONDS));
+        }
+        if (rebalancePeriod > 0) {
+            scheduler.scheduleAtFixedRate(this::rebalance, rebalancePeriod, rebalancePeriod, TimeUnit.MILLISECONDS);
+        }
+
+        long startedAt = System.nanoTime();
+        Runnable arrival = new Runnable() {
+            // момент следующего пассажира от начала прогона, мс; дробная часть копится,
+            // чтобы при тысячах пассажиров в минуту интервалы не округлялись
+            private double nextArrival = FIRST_ARRIVAL;
 
-        scheduler.scheduleAtFixedRate(this::generateRandomRequest,
-                2, 3 + random.nextInt(7), TimeUnit.SECONDS);
+            @Override
+            public void run() {
+                long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                generateRequest(clock.getAsLong(), startTimeOfDay + elapsed);
+                nextArrival += traffic.nextDelay(startTimeOfDay + (long) nextArrival, random);
+                long delayNanos = (long) (nextArrival * 1_000_000) - (System.nanoTime() - startedAt);
+                if (!scheduler.isShutdown()) {
+                    scheduler.schedule(this, Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+                }
+            }
+        };
+        scheduler.schedule(arrival, FIRST_ARRIVAL, TimeUnit.MILLISECONDS);
     }
 
     //остановка симуляции
@@ -48,41 +114,163 @@ public class Simulation {
                 Thread.currentThread().interrupt();
             }
         }
+        if (batchWindow > 0) {
+            for (ElevatorDispatcher dispatcher : building.getDispatchers()) {
+                dispatcher.setBatching(0, null);
+            }
+        }
         building.stopElevators();
     }
 
-    private void generateRandomRequest() {
-        try {
-            int callFloor = random.nextInt(BuildingConfig.TOTAL_FLOORS);
+    // прогон в виртуальном времени: те же лифты и диспетчер, но без потоков и Thread.sleep.
+    // Возвращает количество сгенерированных запросов
+    public long runVirtual(long durationMillis) {
+        DiscreteEventEngine engine = attachVirtual();
+
+        long[] generated = new long[1];
+        Runnable arrival = new Runnable() {
+            private double nextArrival = FIRST_ARRIVAL;
 
-            int targetFloor;
-            do {
-                targetFloor = random.nextInt(BuildingConfig.TOTAL_FLOORS);
-            } while (targetFloor == callFloor);
+            @Override
+            public void run() {
+                generateRequest(engine.now(), startTimeOfDay + engine.now());
+                generated[0]++;
+                nextArrival += traffic.nextDelay(startTimeOfDay + (long) nextArrival, random);
+                engine.scheduleAt((long) nextArrival, this);
+            }
+        };
+        engine.scheduleAt(FIRST_ARRIVAL, arrival);
 
-            Direction direction = (targetFloor > callFloor) ? Direction.UP : Direction.DOWN;
+        // после прогона часы так и показывают его конечное время - для итоговых метрик
+        engine.runUntil(durationMillis);
+        return generated[0];
+    }
 
+    // воспроизведение трассы в виртуальном времени: запросы читаются по одному и приходят
+    // диспетчеру в записанные моменты, поэтому одинаковые трассы дают одинаковый результат.
+    // durationMillis - сколько прогонять после базового времени трассы (<= 0 - до конца трассы
+    // и пока лифты не развезут всех). Возвращает количество воспроизведённых запросов
+    public long replayVirtual(TraceReader trace, long durationMillis) throws IOException {
+        int floors = building.getConfig().getTotalFloors();
+        if (trace.getTotalFloors() > floors) {
+            throw new IllegalArgumentException("Трасса записана для " + trace.getTotalFloors() +
+                    " этажей, в здании " + floors);
+        }
+        DiscreteEventEngine engine = attachVirtual();
 
+        long[] replayed = new long[1];
+        IOException[] failure = new IOException[1];
+        Runnable arrival = new Runnable() {
+            private Request next = trace.hasNext() ? trace.next() : null;
 
-            if (gui != null) {
-                SwingUtilities.invokeLater(() -> {
-                    gui.addPassengerToFloor(callFloor);
-                    System.out.println("Пассажир появился на этаже " + (callFloor + 1) +
-                            ". Теперь там: " + gui.getPassengerCountOnFloor(callFloor) + " пассажиров");
-                });
-            } else {
-                System.out.println("Пассажир появился на этаже " + (callFloor + 1));
+            @Override
+            public void run() {
+                submit(next);
+                replayed[0]++;
+                try {
+                    next = trace.hasNext() ? trace.next() : null;
+                } catch (IOException e) {
+                    failure[0] = e;
+                    next = null;
+                }
+                if (next != null) {
+                    engine.scheduleAt(next.getTimestamp(), this);
+                }
             }
+        };
+        if (trace.hasNext()) {
+            engine.scheduleAt(trace.getBaseTime(), arrival);
+        }
 
-            Request request = new Request(callFloor, direction, targetFloor);
+        if (durationMillis > 0) {
+            engine.runUntil(trace.getBaseTime() + durationMillis);
+        } else {
+            engine.runToCompletion();
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return replayed[0];
+    }
+
+    // движок виртуального времени с лифтами, часами, пакетным назначением и перераспределением
+    private DiscreteEventEngine attachVirtual() {
+        DiscreteEventEngine engine = new DiscreteEventEngine();
+        engine.attachElevators(building.getElevators());
+        clock.attach(engine);
+        if (batchWindow > 0) {
+            setBatching(engine::schedule);
+        }
+        rebalanceTicker = (rebalancePeriod > 0) ? new RebalanceTicker(engine) : null;
+        return engine;
+    }
+
+    // у каждого банка своя пачка, таймер общий
+    private void setBatching(ElevatorDispatcher.BatchTimer timer) {
+        for (ElevatorDispatcher dispatcher : building.getDispatchers()) {
+            dispatcher.setBatching(batchWindow, timer);
+        }
+    }
 
-            System.out.println("Новый запрос: пассажир на этаже " + (callFloor + 1) +
-                    " хочет на этаж " + (targetFloor + 1) + " (" +
-                    (direction == Direction.UP ? "ВВЕРХ" : "ВНИЗ") + ")");
+    // перераспределение внутри каждого банка - лифты других банков этих этажей не обслуживают
+    private void rebalance() {
+        for (ElevatorDispatcher dispatcher : building.getDispatchers()) {
+            dispatcher.rebalance();
+        }
+    }
 
-            building.getDispatcher().handleRequest(request);
+    private boolean hasWork() {
+        for (ElevatorDispatcher dispatcher : building.getDispatchers()) {
+            if (dispatcher.hasWork()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void submit(Request request) {
+        building.getListener().onPassengerArrived(request);
+        building.getRouter().handleRequest(request);
+        if (rebalanceTicker != null) {
+            rebalanceTicker.kick();
+        }
+    }
+
+    // перераспределение в виртуальном времени: тикает, только пока у лифтов есть работа,
+    // иначе runToCompletion никогда не опустошил бы очередь событий; новый пассажир запускает снова
+    private class RebalanceTicker {
+        private final DiscreteEventEngine engine;
+        private boolean scheduled;
+
+        RebalanceTicker(DiscreteEventEngine engine) {
+            this.engine = engine;
+        }
+
+        void kick() {
+            if (!scheduled) {
+                scheduled = true;
+                engine.schedule(rebalancePeriod, this::tick);
+            }
+        }
+
+        private void tick() {
+            scheduled = false;
+            rebalance();
+            if (hasWork()) {
+                kick();
+            }
+        }
+    }
+
+    private void generateRequest(long timestamp, long timeOfDay) {
+        try {
+            int floors = building.getConfig().getTotalFloors();
+            Request request = traffic.nextRequest(timestamp, timeOfDay, floors, random);
+            log.info(request.getDirection() == Direction.UP ? NEW_REQUEST_UP : NEW_REQUEST_DOWN,
+                    request.getCallFloor() + 1, request.getTargetFloor() + 1);
+            submit(request);
         } catch (Exception e) {
-            System.err.println("Ошибка генерации запроса: " + e.getMessage());
+            log.error("Ошибка генерации запроса", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,21 @@
+package com.elevator.core;
+
+import java.util.function.LongSupplier;
+
+// часы симуляции в мс: реальное время, а на время виртуального прогона - время движка событий.
+// По ним ставятся метки запросов и считаются метрики, поэтому ожидание и поездка
+// в виртуальном прогоне измеряются в виртуальных миллисекундах
+public class SimulationClock implements LongSupplier {
+    private volatile DiscreteEventEngine engine;
+
+    @Override
+    public long getAsLong() {
+        DiscreteEventEngine current = engine;
+        return (current != null) ? current.now() : System.currentTimeMillis();
+    }
+
+    // null - обратно на реальное время
+    public void attach(DiscreteEventEngine engine) {
+        this.engine = engine;
+    }
+}
@@ -0,0 +1,262 @@
+package com.elevator.dispatcher;
+
+import com.elevator.config.ElevatorBank;
+import com.elevator.elevator.Direction;
+import com.elevator.event.ElevatorEventListener;
+import com.elevator.request.Request;
+import com.elevator.trace.TraceRecorder;
+import com.elevator.util.Logger;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// входной маршрутизатор зонированного здания: у каждого банка свой ElevatorDispatcher,
+// общих блокировок между банками нет, поэтому банки назначают вызовы независимо и параллельно.
+// Запрос уходит банку, который обслуживает оба этажа; иначе делится на участки с пересадками
+// (по наименьшему числу пересадок между банками; пересадка - на этаже посадки банка, sky lobby).
+// Следующий участок выдаётся, когда пассажир выходит на этаже пересадки (onLegCompleted);
+// продолжение ищется по номеру поездки (Request.getJourneyId), который участок несёт и в
+// упакованном ожидании (PendingCalls), и в кольце событий лифта.
+// Каждый следующий участок - новый приход пассажира на этаж пересадки (onPassengerArrived):
+// приходы, посадки и выходы считаются по участкам и сходятся, ожидание и поездка в метриках -
+// тоже по участку
+public class BankRouter {
+    private static final Logger log = Logger.getLogger(BankRouter.class);
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final List<ElevatorBank> banks;
+    private final List<ElevatorDispatcher> dispatchers;
+    private final int[][] banksOfFloor;  // банки, которые обслуживают этаж, по порядку конфига
+    private final int[][] hops;          // пересадок от банка к банку
+    private final int[][] nextBank;      // следующий банк на кратчайшем пути
+    private final int[][] transferFloor; // этаж пересадки между соседними банками, -1 - нет общего
+    private final boolean[] isTransferFloor;
+
+    private final ElevatorEventListener listener; // приходы на этажи пересадки
+    // остаток маршрута по номеру поездки: пары [банк, этаж конца участка, ...]; у поездки
+    // одно продолжение за раз, участки разных поездок назначаются и завершаются параллельно
+    private final ConcurrentHashMap<Long, int[]> continuations = new ConcurrentHashMap<>();
+    private final LongAdder transfers = new LongAdder();
+    private volatile LongSupplier clock = System::currentTimeMillis; // метка времени следующих участков
+    private volatile TraceRecorder traceRecorder;
+
+    // dispatchers.get(i) назначает вызовы банка banks.get(i); listener получает
+    // onPassengerArrived следующих участков (null - никто)
+    public BankRouter(List<ElevatorBank> banks, List<ElevatorDispatcher> dispatchers, int totalFloors,
+                      ElevatorEventListener listener) {
+        if (banks.isEmpty() || banks.size() != dispatchers.size()) {
+            throw new IllegalArgumentException("Нужно по диспетчеру на банк: банков " + banks.size() +
+                    ", диспетчеров " + dispatchers.size());
+        }
+        this.banks = List.copyOf(banks);
+        this.dispatchers = List.copyOf(dispatchers);
+        this.listener = (listener != null) ? listener : ElevatorEventListener.NONE;
+        int count = banks.size();
+
+        this.banksOfFloor = new int[totalFloors][];
+        for (int floor = 0; floor < totalFloors; floor++) {
+            int[] serving = new int[count];
+            int n = 0;
+            for (int b = 0; b < count; b++) {
+                if (banks.get(b).serves(floor)) {
+                    serving[n++] = b;
+                }
+            }
+            banksOfFloor[floor] = Arrays.copyOf(serving, n);
+        }
+
+        this.transferFloor = new int[count][count];
+        for (int from = 0; from < count; from++) {
+            for (int to = 0; to < count; to++) {
+                transferFloor[from][to] = commonFloor(banks.get(from), banks.get(to));
+            }
+        }
+
+        // кратчайшие пути между банками - поиск в ширину от каждого
+        this.hops = new int[count][count];
+        this.nextBank = new int[count][count];
+        for (int from = 0; from < count; from++) {
+            Arrays.fill(hops[from], UNREACHABLE);
+            int[] previous = new int[count];
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            hops[from][from] = 0;
+            previous[from] = from;
+            queue.add(from);
+            while (!queue.isEmpty()) {
+                int bank = queue.poll();
+                for (int neighbour = 0; neighbour < count; neighbour++) {
+                    if (hops[from][neighbour] == UNREACHABLE && transferFloor[bank][neighbour] >= 0) {
+                        hops[from][neighbour] = hops[from][bank] + 1;
+                        previous[neighbour] = bank;
+                        queue.add(neighbour);
+                    }
+                }
+            }
+            for (int to = 0; to < count; to++) {
+                if (hops[from][to] == UNREACHABLE) {
+                    throw new IllegalArgumentException("Из банка " + banks.get(from) + " нельзя пересесть в " + banks.get(to));
+                }
+                int step = to;
+                while (step != from && previous[step] != from) {
+                    step = previous[step];
+                }
+                nextBank[from][to] = step;
+            }
+        }
+
+        this.isTransferFloor = new boolean[totalFloors];
+        for (int from = 0; from < count; from++) {
+            for (int to = 0; to < count; to++) {
+                if (from != to && transferFloor[from][to] >= 0) {
+                    isTransferFloor[transferFloor[from][to]] = true;
+                }
+            }
+        }
+    }
+
+    // общий этаж двух банков: посадка одного из них, иначе первый общий этаж зон; -1 - нет
+    private static int commonFloor(ElevatorBank from, ElevatorBank to) {
+        if (from.serves(to.getLobby())) {
+            return to.getLobby();
+        }
+        if (to.serves(from.getLobby())) {
+            return from.getLobby();
+        }
+        int lowest = Math.max(from.getLowestFloor(), to.getLowestFloor());
+        return (lowest <= Math.min(from.getHighestFloor(), to.getHighestFloor())) ? lowest : -1;
+    }
+
+    // часы для меток времени следующих участков - те же, что у метрик (виртуальное время)
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    // все исходные запросы (до деления на участки) пишутся в трассу (null - выключить)
+    public void setTraceRecorder(TraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
+    }
+
+    public void handleRequest(Request request) {
+        try {
+            int bank = directBank(request.getCallFloor(), request.getTargetFloor());
+            if (bank >= 0) {
+                dispatchers.get(bank).handleRequest(request);
+                return;
+            }
+            int[] route = route(request.getCallFloor(), request.getTargetFloor());
+            log.info("Запрос: этаж {} -> {} с пересадкой на этаже {}", request.getCallFloor() + 1,
+                    request.getTargetFloor() + 1, route[1] + 1);
+            dispatchers.get(route[0]).handleRequest(
+                    firstLeg(request.getCallFloor(), request.getTimestamp(), request.getJourneyId(), route));
+        } catch (Exception e) {
+            log.error("Ошибка маршрутизации запроса", e);
+        } finally {
+            trace(request);
+        }
+    }
+
+    // запись в трассу после назначения: ошибка записи (например, слишком большой разрыв во
+    // времени) не должна терять пассажира - трасса останавливается, диспетчеризация идёт дальше
+    private void trace(Request request) {
+        TraceRecorder recorder = traceRecorder;
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.record(request);
+        } catch (RuntimeException e) {
+            traceRecorder = null;
+            log.error("Запись трассы остановлена", e);
+        }
+    }
+
+    // пассажир вышел из лифта; если это конец участка с продолжением - выдаёт следующий участок.
+    // Вызывает Building из событий лифтов после метрик
+    public void onLegCompleted(int floor, long journeyId) {
+        if (floor < 0 || floor >= isTransferFloor.length || !isTransferFloor[floor]) {
+            return;
+        }
+        int[] rest = continuations.remove(journeyId);
+        if (rest != null) {
+            transfers.increment();
+            Request leg = firstLeg(floor, clock.getAsLong(), journeyId, rest);
+            listener.onPassengerArrived(leg);
+            dispatchers.get(rest[0]).handleRequest(leg);
+        }
+    }
+
+    // сколько поездок ждут выхода пассажира на этаже пересадки
+    int getPendingContinuations() {
+        return continuations.size();
+    }
+
+    // route - пары [банк, этаж конца участка, ...]; запрос первого участка от этажа from
+    // (банк route[0]) поездки journeyId, остаток маршрута (если есть) ждёт выхода пассажира
+    // на конце участка
+    private Request firstLeg(int from, long timestamp, long journeyId, int[] route) {
+        int to = route[1];
+        if (route.length > 2) {
+            continuations.put(journeyId, Arrays.copyOfRange(route, 2, route.length));
+        }
+        Direction direction = (to > from) ? Direction.UP : Direction.DOWN;
+        return new Request(from, direction, to, timestamp, 0, journeyId);
+    }
+
+    // первый банк, который обслуживает оба этажа, -1 - без пересадки не доехать
+    private int directBank(int callFloor, int targetFloor) {
+        for (int bank : banksOfFloor[callFloor]) {
+            if (banks.get(bank).serves(targetFloor)) {
+                return bank;
+            }
+        }
+        return -1;
+    }
+
+    // маршрут с наименьшим числом пересадок: пары [банк, этаж конца участка, ...];
+    // участки нулевой длины (пассажир уже на этаже пересадки) пропускаются
+    int[] route(int callFloor, int targetFloor) {
+        int bestFrom = -1;
+        int bestTo = -1;
+        for (int from : banksOfFloor[callFloor]) {
+            for (int to : banksOfFloor[targetFloor]) {
+                if (bestFrom < 0 || hops[from][to] < hops[bestFrom][bestTo]) {
+                    bestFrom = from;
+                    bestTo = to;
+                }
+            }
+        }
+        int[] legs = new int[2 * (hops[bestFrom][bestTo] + 1)];
+        int n = 0;
+        int bank = bestFrom;
+        int floor = callFloor;
+        while (bank != bestTo) {
+            int next = nextBank[bank][bestTo];
+            int transfer = transferFloor[bank][next];
+            if (transfer != floor) {
+                legs[n++] = bank;
+                legs[n++] = transfer;
+                floor = transfer;
+            }
+            bank = next;
+        }
+        legs[n++] = bestTo;
+        legs[n++] = targetFloor;
+        return (n == legs.length) ? legs : Arrays.copyOf(legs, n);
+    }
+
+    public List<ElevatorBank> getBanks() {
+        return banks;
+    }
+
+    public List<ElevatorDispatcher> getDispatchers() {
+        return dispatchers;
+    }
+
+    // сколько раз пассажиры пересели между банками
+    public long getTransfers() {
+        return transfers.sum();
+    }
+}
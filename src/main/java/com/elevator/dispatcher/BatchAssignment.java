@@ -0,0 +1,182 @@
+package com.elevator.dispatcher;
+
+import com.elevator.elevator.ElevatorSnapshot;
+import com.elevator.request.Request;
+import java.util.Arrays;
+import java.util.List;
+
+// совместное назначение пачки вызовов: матрица "вызов x место в лифте" решается венгерским
+// алгоритмом, поэтому несколько одновременных вызовов не уходят одному лифту, который
+// был лучшим для каждого по отдельности.
+// Каждый лифт даёт столько мест, сколько вызовов считают его кандидатом; k-е место в лифте
+// дороже на k * LOAD_STEP, места сверх свободной вместимости - ещё на OVERLOAD.
+// Кандидатов на вызов - CANDIDATES лучших лифтов, остальные пары не рассматриваются
+class BatchAssignment {
+    static final int CANDIDATES = 8;
+    static final int LOAD_STEP = 40;   // каждый следующий вызов в тот же лифт - как 4 этажа пути
+    static final int OVERLOAD = 200;   // как штраф за полный лифт в calculateScore
+    private static final long INF = Long.MAX_VALUE / 4;
+
+    private final CallScore scoring;
+    private final int capacity;
+
+    BatchAssignment(CallScore scoring, int capacity) {
+        this.scoring = scoring;
+        this.capacity = capacity;
+    }
+
+    // индекс лифта (в snapshots) для каждого вызова; budget - сколько ячеек матрицы венгерский
+    // алгоритм может просмотреть, дальше оставшиеся вызовы назначаются жадно, как в handleRequest.
+    // Бюджет в работе, а не во времени - в виртуальном времени прогон с пачками воспроизводим
+    int[] solve(List<Request> calls, ElevatorSnapshot[] snapshots, long budget) {
+        int n = calls.size();
+        int cars = snapshots.length;
+        int candidates = Math.min(CANDIDATES, cars);
+
+        // лучшие лифты каждого вызова и их стоимость
+        int[][] candidateCar = new int[n][candidates];
+        int[][] candidateScore = new int[n][candidates];
+        int[] slots = new int[cars];
+        for (int i = 0; i < n; i++) {
+            Request call = calls.get(i);
+            int[] car = candidateCar[i];
+            int[] score = candidateScore[i];
+            Arrays.fill(score, Integer.MAX_VALUE);
+            for (int c = 0; c < cars; c++) {
+                int s = scoring.calculateScore(snapshots[c], call);
+                if (s < score[candidates - 1]) {
+                    // вставка в отсортированный список кандидатов
+                    int j = candidates - 1;
+                    while (j > 0 && score[j - 1] > s) {
+                        score[j] = score[j - 1];
+                        car[j] = car[j - 1];
+                        j--;
+                    }
+                    score[j] = s;
+                    car[j] = c;
+                }
+            }
+            for (int j = 0; j < candidates; j++) {
+                slots[car[j]]++;
+            }
+        }
+
+        // столбцы - места в лифтах: firstColumn[c] .. firstColumn[c] + slots[c] - 1
+        int[] firstColumn = new int[cars];
+        int columns = 0;
+        for (int c = 0; c < cars; c++) {
+            firstColumn[c] = columns;
+            columns += slots[c];
+        }
+        int[] columnCar = new int[columns];
+        long[] columnExtra = new long[columns];
+        for (int c = 0; c < cars; c++) {
+            int free = capacity - snapshots[c].getPassengerCount() - snapshots[c].getPendingCount();
+            for (int k = 0; k < slots[c]; k++) {
+                columnCar[firstColumn[c] + k] = c;
+                columnExtra[firstColumn[c] + k] = (long) k * LOAD_STEP + (k >= free ? OVERLOAD : 0);
+            }
+        }
+
+        long[][] cost = new long[n][columns];
+        for (long[] row : cost) {
+            Arrays.fill(row, INF);
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < candidates; j++) {
+                int c = candidateCar[i][j];
+                for (int k = 0; k < slots[c]; k++) {
+                    cost[i][firstColumn[c] + k] = candidateScore[i][j] + columnExtra[firstColumn[c] + k];
+                }
+            }
+        }
+
+        int[] columnOfRow = hungarian(cost, n, columns, budget);
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            // -1: места кандидатов разобраны жадным добором - лучший лифт вызова
+            result[i] = (columnOfRow[i] >= 0) ? columnCar[columnOfRow[i]] : candidateCar[i][0];
+        }
+        return result;
+    }
+
+    // венгерский алгоритм с потенциалами, строки добавляются по одной (O(n^2 * m)).
+    // Если просмотрено budget ячеек, оставшиеся строки получают самый дешёвый свободный столбец
+    // Возвращает столбец каждой строки
+    private static int[] hungarian(long[][] cost, int n, int m, long budget) {
+        long[] u = new long[n + 1];
+        long[] v = new long[m + 1];
+        int[] rowOfColumn = new int[m + 1]; // 1..n, 0 - столбец свободен
+        int[] way = new int[m + 1];
+        long[] minv = new long[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        long work = 0; // просмотрено ячеек
+        int row = 1;
+        for (; row <= n; row++) {
+            if (work >= budget) {
+                break;
+            }
+            rowOfColumn[0] = row;
+            int j0 = 0;
+            Arrays.fill(minv, INF);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                work += m;
+                int i0 = rowOfColumn[j0];
+                long delta = INF;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        long current = cost[i0 - 1][j - 1] - u[i0] - v[j];
+                        if (current < minv[j]) {
+                            minv[j] = current;
+                            way[j] = j0;
+                        }
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[rowOfColumn[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (rowOfColumn[j0] != 0);
+            do {
+                int j1 = way[j0];
+                rowOfColumn[j0] = rowOfColumn[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] columnOfRow = new int[n];
+        Arrays.fill(columnOfRow, -1);
+        for (int j = 1; j <= m; j++) {
+            if (rowOfColumn[j] != 0) {
+                columnOfRow[rowOfColumn[j] - 1] = j - 1;
+            }
+        }
+        // бюджет исчерпан: жадно по свободным местам (-1 - подходящих мест не осталось)
+        for (int i = row - 1; i < n; i++) {
+            long best = Long.MAX_VALUE;
+            for (int j = 0; j < m; j++) {
+                if (rowOfColumn[j + 1] == 0 && cost[i][j] < INF && cost[i][j] < best) {
+                    best = cost[i][j];
+                    columnOfRow[i] = j;
+                }
+            }
+            if (columnOfRow[i] >= 0) {
+                rowOfColumn[columnOfRow[i] + 1] = i + 1;
+            }
+        }
+        return columnOfRow;
+    }
+}
@@ -0,0 +1,131 @@
+package com.elevator.dispatcher;
+
+import com.elevator.elevator.Direction;
+import com.elevator.elevator.Elevator;
+import com.elevator.elevator.ElevatorSnapshot;
+import com.elevator.request.Request;
+import com.elevator.util.Logger;
+import java.util.ArrayList;
+import java.util.List;
+
+// перераспределение назначенных вызовов: свободный или лучше расположенный лифт забирает
+// у другого тех, кто ещё ждёт на этаже, если сам доберётся заметно дешевле (владелец полон,
+// едет в другую сторону, у него длинный список остановок). Стоимость - calculateScore
+// плюс LOAD_WEIGHT за каждого пассажира и вызов лифта; за проход лифт забирает одну очередь. Вызов переходит целиком очередью этажа и направления
+// (кроме уже переданных MAX_TRANSFERS раз): Elevator.releaseCalls забирает её под lock
+// лифта-владельца, затем addRequest отдаёт новому, оба lock-а одновременно не берутся.
+// Каждый лифт читается в свой снимок один раз за проход, буферы прохода переиспользуются
+class CallRebalancer {
+    private static final Logger log = Logger.getLogger(CallRebalancer.class);
+    static final int LOAD_WEIGHT = 20;   // каждая остановка владельца - как 2 этажа пути
+    static final int STEAL_MARGIN = 100; // выгода должна быть не меньше 10 этажей пути
+    static final int MAX_TRANSFERS = 2;  // больше не передаём - иначе вызов скачет между лифтами
+
+    private final CallScore score;
+    private final int floors;
+
+    // рабочие буферы прохода, переиспользуются: проходы идут по одному (synchronized rebalance)
+    private ElevatorSnapshot[] snapshots = new ElevatorSnapshot[0];
+    private boolean[] served = new boolean[0]; // лифт уже забрал очередь за этот проход
+    private final List<Request> waiting = new ArrayList<>();
+    private final List<Request> released = new ArrayList<>();
+
+    CallRebalancer(CallScore score, int floors) {
+        this.score = score;
+        this.floors = floors;
+    }
+
+    // один проход по всем лифтам; возвращает количество переданных вызовов
+    synchronized int rebalance(List<Elevator> elevators) {
+        int count = elevators.size();
+        if (snapshots.length < count) {
+            snapshots = new ElevatorSnapshot[count];
+            for (int c = 0; c < count; c++) {
+                snapshots[c] = new ElevatorSnapshot(floors);
+            }
+            served = new boolean[count];
+        }
+        // каждый лифт читается один раз за проход
+        for (int c = 0; c < count; c++) {
+            elevators.get(c).readSnapshot(snapshots[c]);
+            served[c] = false;
+        }
+
+        int moved = 0;
+        int thieves = count;
+        for (int o = 0; o < count; o++) {
+            Elevator owner = elevators.get(o);
+            ElevatorSnapshot ownerSnapshot = snapshots[o];
+            if (ownerSnapshot.getPendingCount() == 0) {
+                continue;
+            }
+            waiting.clear();
+            owner.collectWaitingCalls(waiting);
+            for (Request call : waiting) {
+                if (call.getTransfers() >= MAX_TRANSFERS) {
+                    continue;
+                }
+                // у владельца этот вызов уже в загрузке, у претендента - ещё нет
+                int ownerCost = cost(ownerSnapshot, call) - LOAD_WEIGHT;
+                int thief = -1;
+                int thiefCost = Integer.MAX_VALUE;
+                for (int c = 0; c < count; c++) {
+                    if (c == o || served[c]) {
+                        continue;
+                    }
+                    int cost = cost(snapshots[c], call);
+                    if (cost < thiefCost) {
+                        thiefCost = cost;
+                        thief = c;
+                    }
+                }
+                if (thief < 0 || thiefCost + STEAL_MARGIN > ownerCost) {
+                    continue;
+                }
+
+                released.clear();
+                int floor = call.getCallFloor();
+                Direction direction = call.getDirection();
+                // переданные MAX_TRANSFERS раз остаются у владельца, даже если очередь уходит
+                if (owner.releaseCalls(floor, direction, MAX_TRANSFERS, released) == 0) {
+                    continue; // владелец успел подобрать пассажиров
+                }
+                Elevator taker = elevators.get(thief);
+                moved += handOver(owner, taker, released);
+                owner.readSnapshot(ownerSnapshot); // у владельца стало меньше ожидающих
+                served[thief] = true; // вторую очередь за проход не даём
+                thieves--;
+                log.info("Лифт {} забрал у лифта {} ожидающих на этаже {}", taker.getElevatorId() + 1,
+                        owner.getElevatorId() + 1, floor + 1);
+                if (thieves == 0) {
+                    return moved;
+                }
+            }
+        }
+        return moved;
+    }
+
+    // отдаёт вызовы новому лифту со счётчиком передач +1; если он не принял (в потоковом режиме
+    // лифт мог упасть), неотданные возвращаются владельцу как были - вызов не теряется и лишняя
+    // передача не засчитывается. Возвращает сколько отдано
+    private int handOver(Elevator owner, Elevator taker, List<Request> calls) {
+        int given = 0;
+        try {
+            for (Request request : calls) {
+                taker.addRequest(request.transferred());
+                given++;
+            }
+        } catch (RuntimeException e) {
+            log.error("Передача вызовов не удалась, они возвращаются прежнему лифту", e);
+            for (int i = given; i < calls.size(); i++) {
+                owner.addRequest(calls.get(i));
+            }
+        }
+        return given;
+    }
+
+    private int cost(ElevatorSnapshot snapshot, Request call) {
+        int load = snapshot.getPassengerCount() + snapshot.getPendingCount();
+        return score.calculateScore(snapshot, call) + LOAD_WEIGHT * load;
+    }
+}
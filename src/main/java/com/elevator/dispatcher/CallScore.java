@@ -0,0 +1,86 @@
+package com.elevator.dispatcher;
+
+import com.elevator.elevator.Direction;
+import com.elevator.elevator.ElevatorSnapshot;
+import com.elevator.request.Request;
+
+// функция стоимости назначения вызова лифту - общая для жадного назначения (ElevatorDispatcher,
+// CarIndex), пачек (BatchAssignment) и перераспределения (CallRebalancer). Отдельно от
+// диспетчера, чтобы помощники получали её в конструкторе, а не недостроенный диспетчер
+class CallScore {
+    private final int elevatorCapacity;
+
+    CallScore(int elevatorCapacity) {
+        this.elevatorCapacity = elevatorCapacity;
+    }
+
+    // логика - стоимость пути лифта. меньше стоимость - лифт подходит лучше.
+    // расстояние до этажа, состояние лифта, направление движения, совпадение направлений
+
+    // все параметры лифта берутся из одного снимка - этаж и направление одного момента
+    int calculateScore(ElevatorSnapshot elevator, Request request) {
+        // текущие параметры лифта
+        int currentFloor = elevator.getCurrentFloor();
+
+        Direction direction = elevator.getDirection();
+        int callFloor = request.getCallFloor();
+        Direction requestedDirection = request.getDirection();
+
+        // дальше лифт - выше стоимость
+        int distance = Math.abs(currentFloor - callFloor);
+        int score = distance * 10;
+
+        if (direction == Direction.WAIT) {
+            //свободные лифты дешевле
+            score -= 100;
+        } else if (direction == requestedDirection) {
+            //лифт уже едет в том направлении, куда хочет пассажир, который ждет лифт
+            if ((direction == Direction.UP && currentFloor <= callFloor) || (direction == Direction.DOWN && currentFloor >= callFloor)) {
+                score -= 50;
+            } else {
+                // лифт проехал этаж
+                score += 100;
+            }
+        } else {
+            // лифт уже едет НЕ в том направлении, куда хочет пассажир, который ждет лифт
+            score += 150;
+        }
+
+        // проверяем вместимость
+        if (elevator.getPassengerCount() >= elevatorCapacity) {
+            score += 200;
+        }
+
+        // проверяем, остановится ли лифт на этом этаже
+        if (elevator.willStopAtFloor(callFloor)) {
+            score -= 30;
+        }
+
+        return score;
+    }
+
+    // нижняя граница calculateScore для лифта на этаже floor с направлением direction:
+    // вместимость не штрафует, остановка на этаже вызова засчитана. Для CarIndex -
+    // менять вместе с calculateScore
+    int scoreLowerBound(int floor, Direction direction, Request request) {
+        int callFloor = request.getCallFloor();
+        int score = Math.abs(floor - callFloor) * 10 - 30;
+        if (direction == Direction.WAIT) {
+            score -= 100;
+        } else if (direction == request.getDirection()) {
+            if ((direction == Direction.UP && floor <= callFloor) || (direction == Direction.DOWN && floor >= callFloor)) {
+                score -= 50;
+            } else {
+                score += 100;
+            }
+        } else {
+            score += 150;
+        }
+        return score;
+    }
+
+    // нижняя граница для любого лифта в distance этажах от вызова (свободный, с остановкой)
+    int scoreLowerBound(int distance) {
+        return distance * 10 - 130;
+    }
+}
@@ -0,0 +1,109 @@
+package com.elevator.dispatcher;
+
+import com.elevator.elevator.Direction;
+import com.elevator.elevator.Elevator;
+import com.elevator.elevator.ElevatorSnapshot;
+import com.elevator.request.Request;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// индекс лифтов по этажу и направлению: для каждого направления (WAIT, UP, DOWN) и этажа -
+// битовая маска номеров лифтов (позиций в списке диспетчера) и их количество.
+// Лифт сам переносит свой бит при смене этажа или направления (Elevator.PositionListener),
+// без блокировок: сначала ставит новый, потом снимает старый - читатель может на миг увидеть
+// лифт дважды, но не потеряет его.
+// Поиск лучшего лифта идёт от этажа вызова наружу; точно оцениваются только лифты, чья нижняя
+// граница стоимости (CallScore.scoreLowerBound) не хуже уже найденного лучшего,
+// поэтому результат тот же, что у полного перебора, а оценок - единицы вместо M
+class CarIndex {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final List<Elevator> elevators;
+    private final CallScore score;
+    private final int floors;
+    private final int words;              // long-ов маски на этаж
+    private final AtomicLongArray cars;   // [направление][этаж][слово]
+    private final AtomicIntegerArray counts; // [направление][этаж] - лифтов в маске
+    private final int[] position;         // этаж * DIRECTIONS + направление лифта, -1 - ещё нет; пишет только его лифт
+
+    CarIndex(List<Elevator> elevators, CallScore score, int floors) {
+        this.elevators = elevators;
+        this.score = score;
+        this.floors = floors;
+        this.words = Math.max(1, (elevators.size() + 63) >>> 6);
+        this.cars = new AtomicLongArray(DIRECTIONS.length * floors * words);
+        this.counts = new AtomicIntegerArray(DIRECTIONS.length * floors);
+        this.position = new int[elevators.size()];
+        for (int slot = 0; slot < elevators.size(); slot++) {
+            position[slot] = -1;
+            int car = slot;
+            elevators.get(slot).addPositionListener((floor, direction) -> move(car, floor, direction));
+        }
+    }
+
+    // вызывает лифт slot под своим lock
+    private void move(int slot, int floor, Direction direction) {
+        if (floor < 0 || floor >= floors) {
+            return;
+        }
+        int bucket = direction.ordinal() * floors + floor;
+        int previous = position[slot];
+        if (previous == bucket) {
+            return;
+        }
+        long bit = 1L << slot;
+        int word = slot >>> 6;
+        cars.getAndAccumulate(bucket * words + word, bit, (a, b) -> a | b);
+        counts.incrementAndGet(bucket);
+        if (previous >= 0) {
+            cars.getAndAccumulate(previous * words + word, ~bit, (a, b) -> a & b);
+            counts.decrementAndGet(previous);
+        }
+        position[slot] = bucket;
+    }
+
+    // лифт с наименьшей calculateScore (при равенстве - первый в списке), null - лифтов нет.
+    // snapshot - рабочий снимок вызывающего
+    Elevator findBest(Request request, ElevatorSnapshot snapshot) {
+        int callFloor = request.getCallFloor();
+        int best = Integer.MAX_VALUE;
+        int bestSlot = -1;
+        for (int distance = 0; ; distance++) {
+            int below = callFloor - distance;
+            int above = callFloor + distance;
+            if (below < 0 && above >= floors) {
+                break;
+            }
+            if (bestSlot >= 0 && score.scoreLowerBound(distance) > best) {
+                break; // дальше все лифты заведомо дороже
+            }
+            for (int side = 0; side < 2; side++) {
+                int floor = (side == 0) ? below : above;
+                if (floor < 0 || floor >= floors || (side == 1 && distance == 0)) {
+                    continue;
+                }
+                for (Direction direction : DIRECTIONS) {
+                    int bucket = direction.ordinal() * floors + floor;
+                    if (counts.get(bucket) == 0
+                            || (bestSlot >= 0 && score.scoreLowerBound(floor, direction, request) > best)) {
+                        continue;
+                    }
+                    for (int w = 0; w < words; w++) {
+                        long mask = cars.get(bucket * words + w);
+                        while (mask != 0) {
+                            int slot = (w << 6) + Long.numberOfTrailingZeros(mask);
+                            mask &= mask - 1;
+                            int cost = score.calculateScore(elevators.get(slot).readSnapshot(snapshot), request);
+                            if (cost < best || (cost == best && slot < bestSlot)) {
+                                best = cost;
+                                bestSlot = slot;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return (bestSlot >= 0) ? elevators.get(bestSlot) : null;
+    }
+}
@@ -1,99 +1,253 @@
 package com.elevator.dispatcher;
 
+import com.elevator.config.BuildingConfig;
 import com.elevator.elevator.Elevator;
 import com.elevator.elevator.Direction;
+import com.elevator.elevator.ElevatorSnapshot;
+import com.elevator.elevator.LongQueue;
+import com.elevator.event.ElevatorEventListener;
 
 import com.elevator.request.Request;
+import com.elevator.util.Logger;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ElevatorDispatcher {
-    private final List<Elevator> elevators;
+    private static final Logger log = Logger.getLogger(ElevatorDispatcher.class);
+    private static final int MAX_BATCH = 64;                  // больше вызовов - решаем частями
+    private static final long BATCH_BUDGET_CELLS = 1_000_000; // ячеек матрицы на часть пачки (~1 мс), дальше - жадно
+    private static final int SCAN_LIMIT = 16;                 // до стольких лифтов - полный перебор
+
+    // откладывает сбор пачки: в реальном времени - планировщик, в виртуальном - DiscreteEventEngine
+    public interface BatchTimer {
+        void schedule(long delayMillis, Runnable action);
+    }
 
+    private final List<Elevator> elevators;
+    private final int elevatorCapacity;
+    private final int totalFloors;
+    private final ElevatorEventListener listener; //сюда уходит время назначения запроса
+    private final BatchAssignment batchAssignment;
+    private final CarIndex carIndex; //лифты по этажу и направлению для findBestElevator
+    private final ThreadLocal<ElevatorSnapshot> scratch; // рабочий снимок поиска лифта и hasWork, свой у потока
+    private final CallScore score;
+    private final CallRebalancer rebalancer;
+    private final LongAdder rebalancedCalls = new LongAdder();
+
+    // пакетный режим: вызовы копятся batchWindow мс и назначаются вместе (0 - сразу, жадно)
+    private final Object batchLock = new Object();
+    private volatile long batchWindow;
+    private BatchTimer batchTimer;
+    private List<Request> batch = new ArrayList<>();
+    private LongQueue batchArrivals = new LongQueue(); // System.nanoTime() поступления вызова, по порядку batch
+
+    public ElevatorDispatcher(List<Elevator> elevators, BuildingConfig config) {
+        this(elevators, config, ElevatorEventListener.NONE);
+    }
 
-    public ElevatorDispatcher(List<Elevator> elevators) {
+    public ElevatorDispatcher(List<Elevator> elevators, BuildingConfig config, ElevatorEventListener listener) {
         //потокобезопасная копия списка лифтов
         this.elevators = new CopyOnWriteArrayList<>(elevators);
+        this.elevatorCapacity = config.getElevatorCapacity();
+        this.totalFloors = config.getTotalFloors();
+        this.listener = (listener != null) ? listener : ElevatorEventListener.NONE;
+        this.score = new CallScore(elevatorCapacity);
+        this.batchAssignment = new BatchAssignment(score, elevatorCapacity);
+        this.carIndex = new CarIndex(this.elevators, score, totalFloors);
+        this.rebalancer = new CallRebalancer(score, totalFloors);
+        int floors = totalFloors;
+        this.scratch = ThreadLocal.withInitial(() -> new ElevatorSnapshot(floors));
     }
 
-    public synchronized void handleRequest(Request request) {
+    // windowMillis > 0 - пакетный режим, timer запускает сбор пачки через окно после первого вызова;
+    // 0 - прежнее жадное назначение (накопленная пачка назначается сразу)
+    public void setBatching(long windowMillis, BatchTimer timer) {
+        synchronized (batchLock) {
+            this.batchWindow = windowMillis;
+            this.batchTimer = timer;
+        }
+        if (windowMillis <= 0) {
+            flushBatch();
+        }
+    }
 
+    public long getBatchWindow() {
+        return batchWindow;
+    }
 
-        try {
-            Elevator bestElevator = findBestElevator(request);
+    // без synchronized: лифт оценивается по снимку, который заново заполняется из его
+    // опубликованного состояния (StampedLock view в Elevator.readSnapshot - согласованное чтение
+    // без блокировки лифта). Снимок изменяемый и переиспользуется, но рабочий снимок (scratch)
+    // свой у каждого потока, поэтому несколько потоков могут назначать запросы параллельно
+    public void handleRequest(Request request) {
 
-            if (bestElevator != null) {
-                System.out.println("Запрос: этаж " + (request.getCallFloor() + 1) +
-                        " -> " + (request.getTargetFloor() + 1) +
-                        " назначен лифту " + (bestElevator.getElevatorId() + 1));
 
-                bestElevator.addRequest(request);
-            } else {
-                System.out.println("Нет доступных лифтов для запроса с этажа " + (request.getCallFloor() + 1));
+        try {
+            long started = System.nanoTime();
+            if (batchWindow > 0 && enqueue(request, started)) {
+                return;
             }
+            assignGreedy(request, started);
         } catch (Exception e) {
-            System.err.println("Ошибка обработки запроса: " + e.getMessage());
+            log.error("Ошибка обработки запроса", e);
         }
     }
 
-    private Elevator findBestElevator(Request request) {
-        Elevator bestElevator = null;
-        int bestScore = Integer.MAX_VALUE;
+    // лучший по calculateScore лифт получает вызов сразу; started - System.nanoTime() начала назначения
+    private void assignGreedy(Request request, long started) {
+        Elevator bestElevator = findBestElevator(request);
 
-        for (Elevator elevator : elevators) {
-            int score = calculateScore(elevator, request);
+        if (bestElevator != null) {
+            log.info("Запрос: этаж {} -> {} назначен лифту {}", request.getCallFloor() + 1,
+                    request.getTargetFloor() + 1, bestElevator.getElevatorId() + 1);
 
-            if (score < bestScore) {
-                bestScore = score;
-                bestElevator = elevator;
+            bestElevator.addRequest(request);
+            listener.onRequestAssigned(bestElevator.getElevatorId(), request, System.nanoTime() - started);
+        } else {
+            log.warn("Нет доступных лифтов для запроса с этажа {}", request.getCallFloor() + 1);
+        }
+    }
+
+    // true - вызов ждёт пачку; первый вызов пачки запускает таймер окна
+    private boolean enqueue(Request request, long arrived) {
+        BatchTimer timer;
+        synchronized (batchLock) {
+            if (batchWindow <= 0 || batchTimer == null) {
+                return false;
+            }
+            batch.add(request);
+            batchArrivals.addLast(arrived);
+            if (batch.size() > 1) {
+                return true;
             }
+            timer = batchTimer;
         }
+        try {
+            timer.schedule(batchWindow, this::flushBatch);
+        } catch (RuntimeException e) {
+            // таймер не принял сбор (например, планировщик уже остановлен) - без него пачка
+            // так и осталась бы лежать, поэтому назначаем её сразу, в том числе этот вызов
+            log.error("Не удалось запланировать сбор пачки, назначаем сразу", e);
+            flushBatch();
+        }
+        return true;
+    }
 
-        return bestElevator;
+    // назначает все накопленные вызовы совместно (BatchAssignment). Если совместное назначение
+    // сорвалось, ещё не назначенные вызовы пачки назначаются жадно, по одному - никто не теряется
+    public void flushBatch() {
+        List<Request> requests;
+        LongQueue arrivals;
+        synchronized (batchLock) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            requests = batch;
+            arrivals = batchArrivals;
+            batch = new ArrayList<>();
+            batchArrivals = new LongQueue();
+        }
+        int done = 0; // вызовы requests[0, done) уже отданы лифтам
+        try {
+            List<Elevator> cars = new ArrayList<>(elevators);
+            ElevatorSnapshot[] snapshots = new ElevatorSnapshot[cars.size()];
+            for (int from = 0; from < requests.size(); from += MAX_BATCH) {
+                long started = System.nanoTime();
+                // один набор снимков на часть пачки: её вызовы оцениваются по одному моменту
+                for (int c = 0; c < snapshots.length; c++) {
+                    snapshots[c] = cars.get(c).getSnapshot();
+                }
+                List<Request> part = requests.subList(from, Math.min(requests.size(), from + MAX_BATCH));
+                int[] assigned = batchAssignment.solve(part, snapshots, BATCH_BUDGET_CELLS);
+                long now = System.nanoTime();
+                for (int i = 0; i < part.size(); i++) {
+                    Request request = part.get(i);
+                    Elevator elevator = cars.get(assigned[i]);
+                    log.info("Запрос: этаж {} -> {} назначен лифту {} (пачка)", request.getCallFloor() + 1,
+                            request.getTargetFloor() + 1, elevator.getElevatorId() + 1);
+                    elevator.addRequest(request);
+                    done = from + i + 1;
+                    // задержка назначения - только расчёт части пачки, как у жадного handleRequest;
+                    // сколько вызов пролежал в пачке до расчёта - отдельно
+                    listener.onRequestBatched(request, started - arrivals.get(from + i));
+                    listener.onRequestAssigned(elevator.getElevatorId(), request, now - started);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Ошибка назначения пачки запросов, оставшиеся назначаются по одному", e);
+            for (int i = done; i < requests.size(); i++) {
+                try {
+                    assignGreedy(requests.get(i), System.nanoTime());
+                } catch (Exception again) {
+                    log.error("Ошибка обработки запроса", again);
+                }
+            }
+        }
     }
 
+    // свободные лифты забирают ожидающих у перегруженных (CallRebalancer); вызывать периодически.
+    // Возвращает количество переданных вызовов
+    public int rebalance() {
+        try {
+            int moved = rebalancer.rebalance(elevators);
+            rebalancedCalls.add(moved);
+            return moved;
+        } catch (Exception e) {
+            log.error("Ошибка перераспределения вызовов", e);
+            return 0;
+        }
+    }
 
-    // логика - стоимость пути лифта. меньше стоимость - лифт подходит лучше.
-    // расстояние до этажа, состояние лифта, направление движения, совпадение направлений
+    // сколько вызовов передано между лифтами за всё время
+    public long getRebalancedCalls() {
+        return rebalancedCalls.sum();
+    }
 
-    private int calculateScore(Elevator elevator, Request request) {
-        // текущие параметры лифта
-        int currentFloor = elevator.getCurrentFloor();
+    // есть ли у какого-нибудь лифта пассажиры или ожидающие вызовы (по снимкам)
+    public boolean hasWork() {
+        ElevatorSnapshot snapshot = scratch.get();
+        for (Elevator elevator : elevators) {
+            elevator.readSnapshot(snapshot);
+            if (snapshot.getPassengerCount() > 0 || snapshot.getPendingCount() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        Direction direction = elevator.getDirection();
-        int callFloor = request.getCallFloor();
-        Direction requestedDirection = request.getDirection();
+    // лучший лифт по индексу этажей и направлений (CarIndex): точно оцениваются только
+    // лифты рядом с вызовом, результат - как у полного перебора. Несколько лифтов дешевле
+    // перебрать, чем обходить этажи индекса. package-private - для бенчмарков
+    Elevator findBestElevator(Request request) {
+        if (elevators.size() <= SCAN_LIMIT) {
+            return findBestElevatorByScan(request);
+        }
+        return carIndex.findBest(request, scratch.get());
+    }
 
-        // дальше лифт - выше стоимость
-        int distance = Math.abs(currentFloor - callFloor);
-        int score = distance * 10;
+    // полный перебор всех лифтов по снимкам - для сравнения с индексом в бенчмарках
+    Elevator findBestElevatorByScan(Request request) {
+        Elevator bestElevator = null;
+        int bestScore = Integer.MAX_VALUE;
+        ElevatorSnapshot snapshot = scratch.get(); // один на все лифты
 
-        if (direction == Direction.WAIT) {
-            //свободные лифты дешевле
-            score -= 100;
-        } else if (direction == requestedDirection) {
-            //лифт уже едет в том направлении, куда хочет пассажир, который ждет лифт
-            if ((direction == Direction.UP && currentFloor <= callFloor) || (direction == Direction.DOWN && currentFloor >= callFloor)) {
-                score -= 50;
-            } else {
-                // лифт проехал этаж
-                score += 100;
+        for (Elevator elevator : elevators) {
+            int score = calculateScore(elevator.readSnapshot(snapshot), request);
+
+            if (score < bestScore) {
+                bestScore = score;
+                bestElevator = elevator;
             }
-        } else {
-            // лифт уже едет НЕ в том направлении, куда хочет пассажир, который ждет лифт
-            score += 150;
         }
 
-        // проверяем вместимость
-        if (elevator.getActivePassengerCount() >= com.elevator.config.BuildingConfig.ELEVATOR_CAPACITY) {
-            score += 200;
-        }
+        return bestElevator;
+    }
 
-        // проверяем, остановится ли лифт на этом этаже
-        if (elevator.willStopAtFloor(callFloor)) {
-            score -= 30;
-        }
 
-        return score;
+    // стоимость пути лифта к вызову (CallScore); package-private - для бенчмарков
+    int calculateScore(ElevatorSnapshot elevator, Request request) {
+        return score.calculateScore(elevator, request);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package com.elevator.elevator;
+
+// Пассажиры в кабине, разложенные по целевому этажу, и битовая маска целевых этажей.
+// Маска обновляется при посадке и высадке, поэтому "есть цели выше/ниже?" и
+// "ближайшая цель" - битовые операции без обхода пассажиров.
+// Пассажир - три long подряд: вызов (как в PendingCalls), номер поездки и время посадки,
+// поэтому посадка и высадка ничего не создают.
+// Не потокобезопасен - используется под lock лифта.
+public class ActiveRiders {
+    private static final int RIDER_LONGS = 3;
+
+    private final LongQueue[] byTarget; // создаются лениво, сразу на всю кабину
+    private final FloorSet targetFloors;
+    private final int capacity;
+    private int size;
+
+    // capacity - вместимость кабины
+    public ActiveRiders(int floors, int capacity) {
+        this.byTarget = new LongQueue[floors];
+        this.capacity = capacity;
+        this.targetFloors = new FloorSet(floors);
+    }
+
+    // call - упакованный вызов (PendingCalls), целевой этаж берётся из него
+    public void add(long call, long journeyId, long boardedAt) {
+        int floor = PendingCalls.targetOf(call);
+        if (byTarget[floor] == null) {
+            byTarget[floor] = new LongQueue(capacity * RIDER_LONGS);
+        }
+        byTarget[floor].addLast(call);
+        byTarget[floor].addLast(journeyId);
+        byTarget[floor].addLast(boardedAt);
+        targetFloors.add(floor);
+        size++;
+    }
+
+    // все, кто выходит на floor, переходят в конец target по три long (вызов, номер поездки,
+    // время посадки) в порядке посадки; возвращает сколько вышло
+    public int pollAllAt(int floor, LongQueue target) {
+        LongQueue riders = byTarget[floor];
+        if (riders == null || riders.isEmpty()) {
+            return 0;
+        }
+        int count = riders.size() / RIDER_LONGS;
+        while (!riders.isEmpty()) {
+            target.addLast(riders.pollFirst());
+        }
+        size -= count;
+        targetFloors.remove(floor);
+        return count;
+    }
+
+    public boolean hasTargetAt(int floor) {
+        return targetFloors.contains(floor);
+    }
+
+    // ближайший целевой этаж выше/ниже floor или -1
+    public int nextTargetAbove(int floor) {
+        return targetFloors.nextAbove(floor);
+    }
+
+    public int nextTargetBelow(int floor) {
+        return targetFloors.nextBelow(floor);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // целевые этажи в маску остановок снимка
+    public void orFloorsInto(long[] target) {
+        targetFloors.orInto(target);
+    }
+}
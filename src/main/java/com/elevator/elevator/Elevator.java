@@ -1,431 +1,333 @@
 package com.elevator.elevator;
 
 import com.elevator.request.Request;
-import com.elevator.gui.ElevatorGUI;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.*;
+import com.elevator.event.ElevatorEventListener;
+import com.elevator.util.Logger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
 import com.elevator.config.BuildingConfig;
-import java.util.concurrent.TimeUnit;
-import javax.swing.SwingUtilities;
 
 
-// класс Elevator - один лифт, каждый лифт отдельный поток
+// класс Elevator - один лифт
+// логика лифта - конечный автомат: step() завершает текущее действие и выбирает следующее,
+// поэтому её можно крутить в своём потоке со sleep (run), задачами на общем планировщике
+// или в дискретно-событийном движке в виртуальном времени. Как именно - решает Building
 
-public class Elevator extends Thread {
+public class Elevator implements Runnable {
     private final int elevatorId; //id
+    private final BuildingConfig config; //этажность, вместимость, время переезда и дверей
     private int currentFloor; //этаж сейчас
     private Direction direction; //up down
     private ElevatorState elevatorState; //состояние лифта сейчас
     //private final BlockingQueue<Request> requests; //очередь запросов пассажиров
-    private final BlockingQueue<Request> pendingRequests;
-    private final List<Request> activeRequests;
+    private final PendingCalls pendingCalls; //назначенные запросы по этажу и направлению, пассажир ещё ждёт на этаже
+    private final ActiveRiders riders; //пассажиры в кабине по целевому этажу
 
 
     //блокировка для потокобезопасного доступа к состоянию лифта
     private final ReentrantLock lock;
+    private final Condition requestArrived; //сигнал свободному лифту о новом запросе
 
-    private final ElevatorGUI gui; //обновления визуал GUI
+    private final ElevatorEventListener listener; //GUI, логи, метрики - всё через события
+    //вышедшие (по три long: вызов, номер поездки, время посадки) и вошедшие (вызов, номер поездки)
+    //за текущий step(), трогает только поток, который крутит step()
+    private final LongQueue alightedThisStep;
+    private final LongQueue boardedThisStep;
+    //время посадки пассажиров, мс - те же часы, что у метрик и Request.timestamp
+    private volatile LongSupplier clock = System::currentTimeMillis;
+
+    private static final Logger log = Logger.getLogger(Elevator.class);
+    private static final int OPTIMISTIC_ATTEMPTS = 4; //попыток чтения снимка без блокировки
 
-    // константы времени (в мс)
-    private static final int DOOR_OPEN_TIME = 2000;
-    private static final int FLOOR_TRAVEL_TIME = 1000;
  //   private static final int CAPACITY = 8;
 
+    // действие, которое лифт выполняет между двумя вызовами step()
+    private enum Action {
+        IDLE,
+        MOVE,
+        DOORS
+    }
+
+    private Action action;
+    private Direction moveDirection; //куда едет кабина во время MOVE
+
+    //вызывается при новом запросе - так движок событий узнаёт, что свободный лифт пора будить
+    private volatile Runnable wakeupHandler;
+
+    // этаж или направление лифта изменились; вызывается из publishView под lock лифта,
+    // поэтому вызовы одного лифта идут по порядку и без гонок между собой. Должен быть быстрым
+    public interface PositionListener {
+        void onPositionChanged(int floor, Direction direction);
+    }
+
+    //индексы лифтов диспетчеров; массив заменяется целиком под lock, читается в publishView
+    private PositionListener[] positionListeners = new PositionListener[0];
+    private int notifiedFloor = -1;
+    private Direction notifiedDirection;
 
-    public Elevator(int elevatorId, ElevatorGUI gui) {
+    //опубликованное состояние для диспетчера: пишется под lock (и view.writeLock), читается
+    //оптимистично через readSnapshot - без блокировок и без нового объекта на каждый шаг
+    private final StampedLock view = new StampedLock();
+    private int viewFloor;
+    private Direction viewDirection;
+    private ElevatorState viewState;
+    private int viewPassengers;
+    private int viewPending;
+    private final long[] viewStops;
+
+    //все события лифта упакованными long-ами в кольце, без аллокаций; читатели - со своей скоростью
+    private final ElevatorEventRing events;
+    private long lastStateEvent = -1; //последнее опубликованное событие, трогает только поток step()
+
+
+    public Elevator(int elevatorId, BuildingConfig config, ElevatorEventListener listener) {
         this.elevatorId = elevatorId;
+        this.config = config;
         this.currentFloor = 0;
         this.direction = Direction.WAIT;//начальное направление - без движения
         this.elevatorState = ElevatorState.STOPPED; // начальное состояние - остановлен
-        this.pendingRequests = new LinkedBlockingQueue<>();
-        this.activeRequests = new ArrayList<>();
+        this.pendingCalls = new PendingCalls(config.getTotalFloors());
+        this.riders = new ActiveRiders(config.getTotalFloors(), config.getElevatorCapacity());
+        this.alightedThisStep = new LongQueue(3 * config.getElevatorCapacity());
+        this.boardedThisStep = new LongQueue(2 * config.getElevatorCapacity());
         this.lock = new ReentrantLock();
-        this.gui = gui;
+        this.requestArrived = lock.newCondition();
+        this.listener = (listener != null) ? listener : ElevatorEventListener.NONE;
+        this.action = Action.IDLE;
+        this.moveDirection = Direction.WAIT;
+        this.viewStops = new long[(config.getTotalFloors() + 63) >>> 6];
+        publishView();
+        this.events = new ElevatorEventRing(elevatorId);
     }
 
-    //выполняется в отдельном потоке, обрабатывает запросы пассажиров
+    //управляющий цикл для режима "поток на лифт" (платформенный или виртуальный), до interrupt().
+    //свободный лифт спит без таймаута, пока addRequest не даст работу или поток не прервут
     @Override
     public void run() {
         try {
             while (!Thread.currentThread().isInterrupted()) {
-                optimizeAndProcessRequests();
+                long duration = step();
+                if (duration < 0) {
+                    awaitRequest();
+                } else {
+                    Thread.sleep(duration);
+                }
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
     }
 
-
-    private void optimizeAndProcessRequests() throws InterruptedException {
-
-
-        if (activeRequests.isEmpty()) {
-            Request newRequest = pendingRequests.poll(100, TimeUnit.MILLISECONDS);
-            if (newRequest != null) {
-                lock.lock();
-                try {
-                    activeRequests.add(newRequest);
-                    direction = calculateInitialDirection(newRequest);
-                } finally {
-                    lock.unlock();
-                }
-
-                // Выполняем запрос
-                executeSingleRequest(newRequest);
-
-                // Удаляем выполненный запрос
-                lock.lock();
-                try {
-                    activeRequests.remove(newRequest);
-                    if (activeRequests.isEmpty()) {
-                        setElevatorState(ElevatorState.STOPPED, Direction.WAIT);
-                    }
-                } finally {
-                    lock.unlock();
-                }
-            } else {
-                setElevatorState(ElevatorState.STOPPED, Direction.WAIT);
-                return;
+    // свободный лифт ждёт новый запрос; пустая очередь проверяется под тем же lock,
+    // под которым addRequest кладёт запрос и подаёт сигнал, поэтому сигнал не теряется
+    private void awaitRequest() throws InterruptedException {
+        lock.lock();
+        try {
+            while (pendingCalls.isEmpty()) {
+                requestArrived.await();
             }
-        } else {
-            // Если есть активные запросы, продолжаем их обработку
-            executeOptimizedRoute();
-        }
-
-    }
-
-    private Direction calculateInitialDirection(Request request) {
-        if (request.getCallFloor() > currentFloor) {
-            return Direction.UP;
-        } else if (request.getCallFloor() < currentFloor) {
-            return Direction.DOWN;
-        } else {
-            return request.getDirection();
+        } finally {
+            lock.unlock();
         }
     }
 
+    // Один шаг автомата: завершает текущее действие (переезд на этаж, цикл дверей)
+    // и начинает следующее. Возвращает длительность нового действия в мс,
+    // или -1, если делать нечего и лифт ждёт запросов.
+    // События копятся под lock и уходят слушателю уже после unlock
+    public long step() {
+        boolean doorsClosed = false;
+        boolean doorsOpened = false;
+        int floor;
+        ElevatorState state;
+        Direction stateDirection;
+        long duration;
 
-    private void executeOptimizedRoute() throws InterruptedException {
         lock.lock();
         try {
-            // Собираем все целевые точки маршрута
-            Set<Integer> targetFloors = new TreeSet<>();
-            for (Request req : activeRequests) {
-                targetFloors.add(req.getCallFloor());
-                targetFloors.add(req.getTargetFloor());
+            if (action == Action.MOVE) {
+                currentFloor += (moveDirection == Direction.UP) ? 1 : -1;
+            } else if (action == Action.DOORS) {
+                doorsClosed = true;
             }
 
-            // Конвертируем в отсортированный список в зависимости от направления
-            List<Integer> route = new ArrayList<>(targetFloors);
-            if (direction == Direction.DOWN) {
-                route.sort(Collections.reverseOrder());
+            // высадка и посадка на текущем этаже
+            boolean doorsNeeded = processStopAtFloor(currentFloor);
+            direction = calculateOptimalDirection();
+
+            if (doorsNeeded) {
+                openDoors();
+                doorsOpened = true;
+                duration = config.getDoorOpenTime();
             } else {
-                Collections.sort(route);
+                int nextStop = findNextStop();
+                if (nextStop < 0) {
+                    action = Action.IDLE;
+                    setElevatorState(ElevatorState.STOPPED, Direction.WAIT);
+                    duration = -1;
+                } else {
+                    action = Action.MOVE;
+                    moveDirection = (nextStop > currentFloor) ? Direction.UP : Direction.DOWN;
+                    setElevatorState(ElevatorState.MOVING, moveDirection);
+                    duration = config.getFloorTravelTime();
+                }
             }
 
-            // Удаляем этажи, где лифт уже находится
-            route.removeIf(floor -> floor == currentFloor);
+            floor = currentFloor;
+            state = elevatorState;
+            stateDirection = direction;
         } finally {
             lock.unlock();
         }
 
-        // Выполняем маршрут с проверкой промежуточных запросов
-        executeRouteWithPickups();
-    }
-    private void executeSingleRequest(Request request) throws InterruptedException {
-        // 1. Едем на этаж вызова
-        if (currentFloor != request.getCallFloor()) {
-            moveToFloorWithPickups(request.getCallFloor());
-        }
-
-        // 2. Забираем пассажира (открываем двери)
-        System.out.println("Лифт " + (elevatorId + 1) +
-                " принял пассажира на этаже " + (request.getCallFloor() + 1));
-
-        // Удаляем пассажира с этажа в GUI
-        if (gui != null) {
-            SwingUtilities.invokeLater(() -> {
-                try {
-                    ((com.elevator.gui.ElevatorGUI) gui).removePassengerFromFloor(request.getCallFloor());
-                } catch (Exception e) {
-                    System.err.println("Ошибка при удалении пассажира с этажа " + (request.getCallFloor() + 1));
-                }
-            });
+        // события - без блокировки: сначала в кольцо (его читатели - GUI, лог - идут в своём темпе
+        // и лифт не держат), затем синхронным слушателям (метрики, статистика - им нужны часы момента).
+        // Состояние публикуется, только если этаж, состояние или направление изменились
+        long stateEvent = ElevatorEventRing.pack(floor, state, stateDirection);
+        boolean stateChanged = stateEvent != lastStateEvent;
+        if (doorsClosed) {
+            events.publish(ElevatorEventRing.DOORS_CLOSED, floor);
         }
-
-        // Открываем двери
-        openDoors();
-
-        // 3. Едем на целевой этаж
-        if (currentFloor != request.getTargetFloor()) {
-            moveToFloorWithPickups(request.getTargetFloor());
+        for (int i = 0; i < alightedThisStep.size(); i += 3) {
+            events.publishPassenger(ElevatorEventRing.ALIGHTED, floor, alightedThisStep.get(i),
+                    alightedThisStep.get(i + 1), alightedThisStep.get(i + 2));
         }
-
-        // 4. Высаживаем пассажира
-        System.out.println("Лифт " + (elevatorId + 1) +
-                " высадил пассажира на этаже " + (request.getTargetFloor() + 1));
-
-        // Открываем двери
-        openDoors();
-    }
-
-
-    private void executeRouteWithPickups() throws InterruptedException {
-        boolean continueRoute = true;
-
-        while (continueRoute && !Thread.currentThread().isInterrupted()) {
-            lock.lock();
-            Integer nextStop;
-            try {
-                // Определяем следующую остановку
-                nextStop = findNextStop();
-                if (nextStop == null) {
-                    continueRoute = false;
-                    break;
-                }
-            } finally {
-                lock.unlock();
-            }
-
-            // Двигаемся к следующей остановке
-            moveToFloorWithPickups(nextStop);
-
-            // Обрабатываем остановку
-            processStopAtFloor(nextStop);
+        for (int i = 0; i < boardedThisStep.size(); i += 2) {
+            events.publishPassenger(ElevatorEventRing.BOARDED, floor, boardedThisStep.get(i),
+                    boardedThisStep.get(i + 1), 0);
         }
-
-        // Если маршрут завершен
-        lock.lock();
-        try {
-            if (activeRequests.isEmpty()) {
-                setElevatorState(ElevatorState.STOPPED, Direction.WAIT);
-            }
-        } finally {
-            lock.unlock();
+        if (stateChanged) {
+            lastStateEvent = stateEvent;
+            events.publishState(stateEvent);
         }
-    }
-
-    private Integer findNextStop() {
-        if (activeRequests.isEmpty()) {
-            return null;
+        if (doorsOpened) {
+            events.publish(ElevatorEventRing.DOORS_OPENED, floor);
         }
-
-        // Находим ближайшую цель в текущем направлении
-        Integer nearestStop = null;
-        int minDistance = Integer.MAX_VALUE;
-
-        for (Request req : activeRequests) {
-            // Проверяем этаж вызова
-            if (shouldStopAtFloor(req.getCallFloor())) {
-                int distance = Math.abs(currentFloor - req.getCallFloor());
-                if (distance < minDistance) {
-                    minDistance = distance;
-                    nearestStop = req.getCallFloor();
-                }
+        try {
+            if (doorsClosed) {
+                listener.onDoorsClosed(elevatorId, floor);
             }
-
-            // Проверяем целевой этаж
-            if (shouldStopAtFloor(req.getTargetFloor())) {
-                int distance = Math.abs(currentFloor - req.getTargetFloor());
-                if (distance < minDistance) {
-                    minDistance = distance;
-                    nearestStop = req.getTargetFloor();
-                }
+            for (int i = 0; i < alightedThisStep.size(); i += 3) {
+                listener.onPassengerAlighted(elevatorId, floor, alightedThisStep.get(i),
+                        alightedThisStep.get(i + 1), alightedThisStep.get(i + 2));
             }
-        }
-
-        return nearestStop;
-    }
-
-    private boolean shouldStopAtFloor(int floor) {
-        if (floor == currentFloor) return false;
-
-        if (direction == Direction.UP) {
-            return floor > currentFloor;
-        } else if (direction == Direction.DOWN) {
-            return floor < currentFloor;
-        }
-
-        return true;
-    }
-    public boolean willStopAtFloor(int floor) {
-        lock.lock();
-        try {
-            if (floor == currentFloor) return true;
-
-            for (Request req : activeRequests) {
-                if (req.getCallFloor() == floor || req.getTargetFloor() == floor) {
-                    return true;
-                }
+            for (int i = 0; i < boardedThisStep.size(); i += 2) {
+                listener.onPassengerBoarded(elevatorId, floor, boardedThisStep.get(i), boardedThisStep.get(i + 1));
             }
-
-            if (direction == Direction.UP && floor > currentFloor){
-                return true;
+            if (stateChanged) {
+                listener.onStateChanged(elevatorId, floor, state, stateDirection);
             }
-            if (direction == Direction.DOWN && floor < currentFloor){
-                return true;
+            if (doorsOpened) {
+                listener.onDoorsOpened(elevatorId, floor);
             }
-
-            return false;
         } finally {
-            lock.unlock();
+            alightedThisStep.clear();
+            boardedThisStep.clear();
         }
+        return duration;
     }
 
-    private void moveToFloorWithPickups(int targetFloor) throws InterruptedException {
-        Direction moveDirection = (targetFloor > currentFloor) ? Direction.UP : Direction.DOWN;
-        setElevatorState(ElevatorState.MOVING, moveDirection);
 
-        while (currentFloor != targetFloor && !Thread.currentThread().isInterrupted()) {
-            // Проверяем, нужно ли остановиться на промежуточном этаже
-            checkForIntermediatePickups();
-
-            try {
-                Thread.sleep(FLOOR_TRAVEL_TIME);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw e;
-            }
+    // ближайшая остановка по текущему направлению: цели пассажиров в кабине и этажи вызова ожидающих,
+    // по битовым маскам, без аллокаций; -1 - остановок нет
+    // (package-private - для бенчмарков, вызывать под lock)
+    int findNextStop() {
+        int above = -1;
+        int below = -1;
+        if (direction != Direction.DOWN) {
+            above = FloorSet.closer(riders.nextTargetAbove(currentFloor), pendingCalls.nearestFloorAbove(currentFloor), true);
+        }
+        if (direction != Direction.UP) {
+            below = FloorSet.closer(riders.nextTargetBelow(currentFloor), pendingCalls.nearestFloorBelow(currentFloor), false);
+        }
+        if (above < 0) return below;
+        if (below < 0) return above;
+        // WAIT: ближайшая в любую сторону, при равенстве - вверх
+        return (above - currentFloor <= currentFloor - below) ? above : below;
+    }
 
-            lock.lock();
+    // по опубликованному состоянию: оптимистичное чтение без блокировки и без снимка,
+    // read-lock - только если чтение пересеклось с публикацией
+    public boolean willStopAtFloor(int floor) {
+        long stamp = view.tryOptimisticRead();
+        boolean stops = viewWillStopAt(floor);
+        if (!view.validate(stamp)) {
+            stamp = view.readLock();
             try {
-                currentFloor += (moveDirection == Direction.UP) ? 1 : -1;
+                stops = viewWillStopAt(floor);
             } finally {
-                lock.unlock();
+                view.unlockRead(stamp);
             }
-
-            setElevatorState(ElevatorState.MOVING, moveDirection);
         }
+        return stops;
     }
 
-    private void checkForIntermediatePickups() {
-        List<Request> toAdd = new ArrayList<>();
-        lock.lock();
-        try {
-            // Проверяем запросы в очереди ожидания
-            Iterator<Request> iterator = pendingRequests.iterator();
-            while (iterator.hasNext()) {
-                Request req = iterator.next();
-
-                // Если запрос на текущем этаже и по текущему направлению
-                if (req.getCallFloor() == currentFloor &&
-                        (req.getDirection() == direction || direction == Direction.WAIT) &&
-                        activeRequests.size() < BuildingConfig.ELEVATOR_CAPACITY) {
-
-                    System.out.println("Лифт " + (elevatorId + 1) +
-                            " подбирает пассажира на этаже " + (currentFloor + 1));
-
-                    toAdd.add(req);
-                    iterator.remove();
-
-                    // УДАЛЯЕМ ПАССАЖИРА С ЭТАЖА ЗДЕСЬ ТОЖЕ!!!!!
-                    if (gui != null) {
-                        SwingUtilities.invokeLater(() -> {
-                            try {
-                                ((com.elevator.gui.ElevatorGUI) gui).removePassengerFromFloor(currentFloor);
-                            } catch (Exception e) {
-                                System.err.println("Ошибка при удалении пассажира с этажа " + (currentFloor + 1) + ": " + e.getMessage());
-                            }
-                        });
-                    }
-                }
-            }
-            if (!toAdd.isEmpty()) {
-                activeRequests.addAll(toAdd);
-                if (direction == Direction.WAIT && !toAdd.isEmpty()) {
-                    direction = toAdd.get(0).getTargetFloor() > currentFloor ? Direction.UP : Direction.DOWN;
-                }
-            }
-
-        } finally {
-            lock.unlock();
+    // то же, что ElevatorSnapshot.willStopAtFloor, по полям view; при оптимистичном чтении
+    // значения могут быть несогласованными - результат годится только после validate
+    private boolean viewWillStopAt(int floor) {
+        int floorNow = viewFloor;
+        Direction directionNow = viewDirection;
+        int word = floor >>> 6;
+        if (floor == floorNow || (floor >= 0 && word < viewStops.length && (viewStops[word] & (1L << floor)) != 0)) {
+            return true;
         }
-        //открытие дверей отдельно
-        if (!toAdd.isEmpty()) {
-            try {
-                openDoors();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+        if (directionNow == Direction.UP && floor > floorNow) {
+            return true;
         }
-
+        return directionNow == Direction.DOWN && floor < floorNow;
     }
 
 
-    private void processStopAtFloor(int floor) throws InterruptedException {
-        setElevatorState(ElevatorState.STOPPED, Direction.WAIT);
-
-        List<Request> completedRequests = new ArrayList<>();
+    // высадка и посадка на этаже; true - если кто-то вышел или вошёл и нужно открыть двери
+    private boolean processStopAtFloor(int floor) {
         boolean passengerBoarded = false;
 
-        lock.lock();
-        try {
-            // Находим запросы, которые нужно обработать на этом этаже
-            for (Request req : activeRequests) {
-                if (req.getTargetFloor() == floor) {
-                    System.out.println("Лифт " + (elevatorId + 1) +
-                            " высадил пассажира на этаже " + (floor + 1));
-                    completedRequests.add(req);
-                }
-                // НЕ отмечаем как boarding, если пассажир уже в лифте!
-                // Это обрабатывается отдельно в checkForIntermediatePickups()
-            }
+        // высаживаем пассажиров, которые ехали на этот этаж - только очередь этого этажа
+        boolean passengerLeft = riders.pollAllAt(floor, alightedThisStep) > 0;
 
-            // Проверяем pendingRequests - это запросы, которые еще не начаты
-            // (пассажиры ждут на этаже)
-            Iterator<Request> pendingIterator = pendingRequests.iterator();
-            while (pendingIterator.hasNext()) {
-                Request req = pendingIterator.next();
-                if (req.getCallFloor() == floor) {
-                    System.out.println("Лифт " + (elevatorId + 1) +
-                            " принял пассажира на этаже " + (floor + 1));
-                    activeRequests.add(req);
-                    pendingIterator.remove();
-                    passengerBoarded = true;
-                }
+        // посадка только из очереди этажа в сторону дальнейшего движения;
+        // если дальше ехать некуда - в сторону прежнего направления, иначе в обратную
+        if (pendingCalls.hasCallsAt(floor)) {
+            long now = clock.getAsLong();
+            Direction travel = calculateOptimalDirection();
+            if (travel != Direction.WAIT) {
+                passengerBoarded = boardAtFloor(floor, travel, now);
+            } else {
+                Direction preferred = (direction == Direction.DOWN) ? Direction.DOWN : Direction.UP;
+                passengerBoarded = boardAtFloor(floor, preferred, now)
+                        || boardAtFloor(floor, preferred == Direction.UP ? Direction.DOWN : Direction.UP, now);
             }
-
-            activeRequests.removeAll(completedRequests);
-            direction = calculateOptimalDirection();
-        } finally {
-            lock.unlock();
         }
 
-        // Удаление пассажира с этажа GUI - ТОЛЬКО при реальной посадке
-        if (passengerBoarded && gui != null) {
-            SwingUtilities.invokeLater(() -> {
-                try {
-                    ((com.elevator.gui.ElevatorGUI) gui).removePassengerFromFloor(floor);
-                } catch (Exception e) {
-                    System.err.println("Ошибка при удалении пассажира с этажа " + (floor + 1) + ": " + e.getMessage());
-                }
-            });
-        }
+        return passengerLeft || passengerBoarded;
+    }
 
-        if (!completedRequests.isEmpty() || passengerBoarded || shouldOpenDoorsAtFloor(floor)) {
-            openDoors();
+    // сажает ожидающих на этаже в направлении direction, пока есть места; now - время посадки
+    private boolean boardAtFloor(int floor, Direction direction, long now) {
+        boolean boarded = false;
+        while (riders.size() < config.getElevatorCapacity()
+                && pendingCalls.poll(floor, direction, boardedThisStep)) {
+            int last = boardedThisStep.size() - 2;
+            riders.add(boardedThisStep.get(last), boardedThisStep.get(last + 1), now);
+            boarded = true;
         }
+        return boarded;
     }
 
-    private Direction calculateOptimalDirection() {
-        if (activeRequests.isEmpty()) {
+    Direction calculateOptimalDirection() {
+        if (riders.isEmpty() && pendingCalls.isEmpty()) {
             return Direction.WAIT;
         }
 
-        // Проверяем, есть ли запросы выше текущего этажа
-        boolean hasRequestsAbove = false;
-        boolean hasRequestsBelow = false;
-
-        for (Request req : activeRequests) {
-            if (req.getCallFloor() > currentFloor || req.getTargetFloor() > currentFloor) {
-                hasRequestsAbove = true;
-            }
-            if (req.getCallFloor() < currentFloor || req.getTargetFloor() < currentFloor) {
-                hasRequestsBelow = true;
-            }
-        }
+        // Проверяем, есть ли запросы выше/ниже текущего этажа - по битовым маскам
+        boolean hasRequestsAbove = riders.nextTargetAbove(currentFloor) >= 0
+                || pendingCalls.nearestFloorAbove(currentFloor) >= 0;
+        boolean hasRequestsBelow = riders.nextTargetBelow(currentFloor) >= 0
+                || pendingCalls.nearestFloorBelow(currentFloor) >= 0;
 
         if (direction == Direction.UP && hasRequestsAbove) {
             return Direction.UP;
@@ -440,59 +342,129 @@ public class Elevator extends Thread {
         return Direction.WAIT;
     }
 
-    private boolean shouldOpenDoorsAtFloor(int floor) {
+    // открытие дверей, закроются на следующем step() через время цикла дверей из конфига
+    private void openDoors() {
+        action = Action.DOORS;
+        // состояние DOORS_OPEN
+        setElevatorState(ElevatorState.DOORS_OPEN, direction);
+    }
+
+    // обновляет состояние и направление, вызывать под lock. @param newState - Новое состояние лифта.
+    // @param newDirection Новое направление движения
+    // событие onStateChanged отправляет step() после unlock
+    private void setElevatorState(ElevatorState newState, Direction newDirection) {
+        this.elevatorState = newState;
+        this.direction = newDirection;
+        publishView();
+    }
+
+    // новый пассажир в очередь
+    public void addRequest(Request request) {
+        int queueSize;
         lock.lock();
         try {
-            for (Request req : pendingRequests) {
-                if (req.getCallFloor() == floor) {
-                    return true;
-                }
-            }
-            return false;
+            pendingCalls.add(request);
+            queueSize = pendingCalls.size() + riders.size();
+            publishView();
+            requestArrived.signal();
         } finally {
             lock.unlock();
         }
+        log.debug("Лифт {} получил новый запрос. Очередь: {}", elevatorId + 1, queueSize);
+
+        Runnable handler = wakeupHandler;
+        if (handler != null) {
+            handler.run();
+        }
     }
 
-    // открытие дверей
-    private void openDoors() throws InterruptedException {
-        // состояние DOORS_OPEN
-        setElevatorState(ElevatorState.DOORS_OPEN, Direction.WAIT);
+    // добавляет к counts[этаж] назначенных этому лифту пассажиров, которые ещё ждут на этаже.
+    // Под lock шага - для редкой пересинхронизации (GUI после пропуска событий), не для частых чтений
+    public void countWaitingByFloor(int[] counts) {
+        lock.lock();
+        try {
+            pendingCalls.countByFloor(counts);
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        System.out.println("Лифт " + (elevatorId + 1) + " открыл двери на этаже " + (currentFloor + 1));
-        Thread.sleep(DOOR_OPEN_TIME);
-        System.out.println("Лифт " + (elevatorId + 1) + " закрыл двери на этаже " + (currentFloor + 1));
+    // первые ожидающие каждого этажа вызова и направления - кандидаты на передачу другому лифту
+    public void collectWaitingCalls(List<Request> target) {
+        lock.lock();
+        try {
+            pendingCalls.collectHeads(target);
+        } finally {
+            lock.unlock();
+        }
     }
 
-    // потокобезопасно обновляет состояние и направление. @param newState - Новое состояние лифта.
-    // @param newDirection Новое направление движения
-    private void setElevatorState(ElevatorState newState, Direction newDirection) {
+    // отдаёт всех, кто ещё ждёт на этаже floor в направлении direction (в target), кроме тех,
+    // кого уже передавали maxTransfers раз - они остаются у этого лифта.
+    // Под тем же lock, под которым step() сажает пассажиров, поэтому вызов либо уже в кабине
+    // этого лифта, либо целиком уходит в target - и никогда не в обоих местах
+    public int releaseCalls(int floor, Direction direction, int maxTransfers, List<Request> target) {
+        int released;
         lock.lock();
         try {
-            this.elevatorState = newState;
-            this.direction = newDirection;
-
-            // состояние лифта в GUI
-            String guiStatus;
-            if (newState == ElevatorState.MOVING) {
-                guiStatus = "MOVING_" + (newDirection == Direction.UP ? "UP" : "DOWN");
-            } else if (newState == ElevatorState.DOORS_OPEN) {
-                guiStatus = "DOORS_OPEN";
-            } else {
-                guiStatus = "STOPPED";
+            released = pendingCalls.drain(floor, direction, maxTransfers, target);
+            if (released > 0) {
+                publishView();
             }
-            gui.updateElevatorState(elevatorId, currentFloor, currentFloor, guiStatus);
+        } finally {
+            lock.unlock();
+        }
+        if (released > 0) {
+            log.debug("Лифт {} отдал вызовов с этажа {}: {}", elevatorId + 1, floor + 1, released);
+        }
+        return released;
+    }
 
+    // публикует состояние для readSnapshot, вызывать под lock; ничего не создаёт
+    private void publishView() {
+        long stamp = view.writeLock();
+        try {
+            viewFloor = currentFloor;
+            viewDirection = direction;
+            viewState = elevatorState;
+            viewPassengers = riders.size();
+            viewPending = pendingCalls.size();
+            Arrays.fill(viewStops, 0);
+            riders.orFloorsInto(viewStops);
+            pendingCalls.orFloorsInto(viewStops);
+        } finally {
+            view.unlockWrite(stamp);
+        }
+        if (currentFloor != notifiedFloor || direction != notifiedDirection) {
+            notifiedFloor = currentFloor;
+            notifiedDirection = direction;
+            for (PositionListener positionListener : positionListeners) {
+                positionListener.onPositionChanged(currentFloor, direction);
+            }
+        }
+    }
+
+    // подписка на смену этажа и направления; сразу получает текущее положение
+    public void addPositionListener(PositionListener positionListener) {
+        lock.lock();
+        try {
+            PositionListener[] listeners = Arrays.copyOf(positionListeners, positionListeners.length + 1);
+            listeners[listeners.length - 1] = positionListener;
+            positionListeners = listeners;
+            positionListener.onPositionChanged(currentFloor, direction);
         } finally {
             lock.unlock();
         }
     }
 
-    // новый пассажир в очередь
-    public void addRequest(Request request) {
-        pendingRequests.offer(request);
-        System.out.println("Лифт " + (elevatorId + 1) + " получил новый запрос. Очередь: " +
-                (pendingRequests.size() + activeRequests.size()));
+    // обработчик пробуждения для работы без собственного потока (дискретно-событийный движок)
+    public void setWakeupHandler(Runnable wakeupHandler) {
+        this.wakeupHandler = wakeupHandler;
+    }
+
+    // часы для времени посадки (событие высадки несёт его метрикам); по умолчанию - системные
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
     }
 
     //геттеры
@@ -501,33 +473,102 @@ public class Elevator extends Thread {
         return elevatorId;
     }
 
-    public int getCurrentFloor() {
-        lock.lock();
-        try {
-            return currentFloor;
-        } finally {
-            lock.unlock();
+    // заполняет target согласованным состоянием: оптимистичное чтение, при гонке с публикацией -
+    // повтор, после нескольких неудач - под read-lock. Без аллокаций
+    public ElevatorSnapshot readSnapshot(ElevatorSnapshot target) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = view.tryOptimisticRead();
+            if (stamp != 0) {
+                target.set(elevatorId, viewFloor, viewDirection, viewState, viewPassengers, viewPending, viewStops);
+                if (view.validate(stamp)) {
+                    return target;
+                }
+            }
         }
-    }
-
-    public Direction getDirection() {
-        lock.lock();
+        long stamp = view.readLock();
         try {
-            return direction;
+            target.set(elevatorId, viewFloor, viewDirection, viewState, viewPassengers, viewPending, viewStops);
+            return target;
         } finally {
-            lock.unlock();
+            view.unlockRead(stamp);
         }
     }
 
+    // согласованный снимок состояния без блокировки, новый объект
+    public ElevatorSnapshot getSnapshot() {
+        return readSnapshot(new ElevatorSnapshot(config.getTotalFloors()));
+    }
 
+    // есть ли назначенные, ещё не подобранные вызовы - по опубликованному состоянию
+    public boolean hasPendingCalls() {
+        long stamp = view.tryOptimisticRead();
+        int pending = viewPending;
+        if (!view.validate(stamp)) {
+            stamp = view.readLock();
+            try {
+                pending = viewPending;
+            } finally {
+                view.unlockRead(stamp);
+            }
+        }
+        return pending > 0;
+    }
 
+    // кольцо событий этого лифта
+    public ElevatorEventRing getEvents() {
+        return events;
+    }
 
+    // этаж, направление и загрузка - из опубликованного view, как и снимок: диспетчер не ждёт
+    // lock, который поток лифта держит весь шаг. Повтор под read-lock - только при гонке с публикацией
+    public int getCurrentFloor() {
+        long stamp = view.tryOptimisticRead();
+        int floor = viewFloor;
+        if (!view.validate(stamp)) {
+            stamp = view.readLock();
+            try {
+                floor = viewFloor;
+            } finally {
+                view.unlockRead(stamp);
+            }
+        }
+        return floor;
+    }
 
+    public Direction getDirection() {
+        long stamp = view.tryOptimisticRead();
+        Direction current = viewDirection;
+        if (!view.validate(stamp)) {
+            stamp = view.readLock();
+            try {
+                current = viewDirection;
+            } finally {
+                view.unlockRead(stamp);
+            }
+        }
+        return current;
+    }
 
     public int getActivePassengerCount() {
+        long stamp = view.tryOptimisticRead();
+        int passengers = viewPassengers;
+        if (!view.validate(stamp)) {
+            stamp = view.readLock();
+            try {
+                passengers = viewPassengers;
+            } finally {
+                view.unlockRead(stamp);
+            }
+        }
+        return passengers;
+    }
+
+    // те же этаж, направление и загрузка под lock шага - так геттеры читали до view;
+    // package-private - для сравнения в бенчмарке конкуренции
+    int readUnderStepLock() {
         lock.lock();
         try {
-            return activeRequests.size();
+            return currentFloor + direction.ordinal() + riders.size();
         } finally {
             lock.unlock();
         }
@@ -539,4 +580,3 @@ public class Elevator extends Thread {
 
 
 
-
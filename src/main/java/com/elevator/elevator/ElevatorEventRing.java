@@ -0,0 +1,169 @@
+package com.elevator.elevator;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Заранее выделенное кольцо событий одного лифта: смена состояния, двери, посадка, высадка.
+// Событие - один long (тип, этаж, ElevatorState, Direction упакованы в биты), для посадки
+// и высадки - ещё пассажир тремя long: вызов как в PendingCalls, номер поездки и время посадки.
+// Ни публикация, ни чтение ничего не создают.
+// Пишет только поток, который крутит лифт, и никогда никого не ждёт. Читателей сколько угодно,
+// у каждого свой Cursor и свой темп: отставший больше чем на CAPACITY событий пропускает
+// старые (счётчик getLost), но лифт не тормозит
+public final class ElevatorEventRing {
+    public static final int CAPACITY = 1024; // степень двойки
+    private static final int MASK = CAPACITY - 1;
+
+    // типы событий
+    public static final int STATE = 0;
+    public static final int DOORS_OPENED = 1;
+    public static final int DOORS_CLOSED = 2;
+    public static final int BOARDED = 3;
+    public static final int ALIGHTED = 4;
+
+    private static final ElevatorState[] STATES = ElevatorState.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // читатель событий кольца
+    public interface Handler {
+        // call, journeyId - пассажир BOARDED и ALIGHTED, boardedAt - время посадки у ALIGHTED;
+        // у остальных событий нули
+        void onEvent(int elevatorId, long event, long call, long journeyId, long boardedAt);
+    }
+
+    private final int elevatorId;
+    private final AtomicLongArray events = new AtomicLongArray(CAPACITY);
+    private final AtomicLongArray calls = new AtomicLongArray(CAPACITY); // пассажир BOARDED/ALIGHTED
+    private final AtomicLongArray journeys = new AtomicLongArray(CAPACITY); // его номер поездки
+    private final AtomicLongArray boardedAts = new AtomicLongArray(CAPACITY); // и время посадки
+    private volatile long claimed;   // номер события, которое пишется сейчас (+1)
+    private volatile long published; // сколько событий записано за всё время
+    private volatile long latestState = -1;
+
+    public ElevatorEventRing(int elevatorId) {
+        this.elevatorId = elevatorId;
+    }
+
+    // упаковка состояния: биты 0-7 - направление, 8-15 - состояние, 16-23 - тип, 24-55 - этаж
+    public static long pack(int floor, ElevatorState state, Direction direction) {
+        return ((long) floor << 24) | ((long) state.ordinal() << 8) | direction.ordinal();
+    }
+
+    // событие другого типа на этаже (двери, посадка, высадка)
+    public static long pack(int type, int floor) {
+        return ((long) floor << 24) | ((long) type << 16);
+    }
+
+    public static int typeOf(long event) {
+        return (int) (event >>> 16) & 0xFF;
+    }
+
+    public static int floorOf(long event) {
+        return (int) (event >>> 24);
+    }
+
+    public static ElevatorState stateOf(long event) {
+        return STATES[(int) (event >>> 8) & 0xFF];
+    }
+
+    public static Direction directionOf(long event) {
+        return DIRECTIONS[(int) event & 0xFF];
+    }
+
+    // только из потока лифта
+    void publishState(long stateEvent) {
+        publish(stateEvent, 0, 0, 0);
+        latestState = stateEvent;
+    }
+
+    void publish(int type, int floor) {
+        publish(pack(type, floor), 0, 0, 0);
+    }
+
+    // посадка или высадка пассажира: вызов упакован как в PendingCalls
+    void publishPassenger(int type, int floor, long call, long journeyId, long boardedAt) {
+        publish(pack(type, floor), call, journeyId, boardedAt);
+    }
+
+    private void publish(long event, long call, long journeyId, long boardedAt) {
+        long sequence = published;
+        claimed = sequence + 1; // сначала отмечаем, что слот будет перезаписан
+        int slot = (int) (sequence & MASK);
+        events.set(slot, event);
+        calls.set(slot, call);
+        journeys.set(slot, journeyId);
+        boardedAts.set(slot, boardedAt);
+        published = sequence + 1;
+    }
+
+    public int getElevatorId() {
+        return elevatorId;
+    }
+
+    // номер следующего события; читатель, дошедший до него, видел всё
+    public long getPublished() {
+        return published;
+    }
+
+    // последнее событие STATE или -1, если состояние ещё не публиковалось
+    public long latestState() {
+        return latestState;
+    }
+
+    // читатель с текущего места: видит события, опубликованные после создания
+    public Cursor newCursor() {
+        return new Cursor(published);
+    }
+
+    // позиция одного читателя; сам курсор не потокобезопасен - один читатель, один поток
+    public final class Cursor {
+        private long next;
+        private long lost;
+
+        private Cursor(long next) {
+            this.next = next;
+        }
+
+        // отдаёт handler-у все опубликованные события; возвращает сколько отдано
+        public int poll(Handler handler) {
+            long end = published;
+            int delivered = 0;
+            while (next < end) {
+                if (end - next > CAPACITY) {
+                    skipTo(end - CAPACITY);
+                    continue;
+                }
+                int slot = (int) (next & MASK);
+                long event = events.get(slot);
+                long call = calls.get(slot);
+                long journey = journeys.get(slot);
+                long boardedAt = boardedAts.get(slot);
+                long writing = claimed;
+                if (writing - next > CAPACITY) {
+                    // слот начали перезаписывать, пока читали
+                    skipTo(writing - CAPACITY);
+                    continue;
+                }
+                handler.onEvent(elevatorId, event, call, journey, boardedAt);
+                next++;
+                delivered++;
+            }
+            return delivered;
+        }
+
+        // перескакивает к последнему опубликованному событию без учёта в getLost -
+        // для читателя, который сам перечитал состояние лифта
+        public void skipToEnd() {
+            next = published;
+        }
+
+        private void skipTo(long sequence) {
+            lost += sequence - next;
+            next = sequence;
+        }
+
+        // сколько событий читатель пропустил, отстав от лифта
+        public long getLost() {
+            return lost;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.elevator.elevator;
+
+// Снимок состояния лифта: этаж, направление, загрузка и остановки одного момента времени.
+// Заполняет его Elevator.readSnapshot оптимистичным чтением без блокировок; лифт сам при этом
+// ничего не создаёт, поэтому читатель может держать один снимок и перезаполнять его.
+// Снимок принадлежит читателю - лифт в него не пишет, пока его не попросят
+public final class ElevatorSnapshot {
+    private int elevatorId;
+    private int currentFloor;
+    private Direction direction = Direction.WAIT;
+    private ElevatorState state = ElevatorState.STOPPED;
+    private int passengerCount; // пассажиров в кабине
+    private int pendingCount;   // назначенных, ещё ждут на этажах
+    private final long[] stopFloors;  // битовая маска этажей-остановок
+
+    // пустой снимок для здания с floors этажами
+    public ElevatorSnapshot(int floors) {
+        this.stopFloors = new long[(floors + 63) >>> 6];
+    }
+
+    // копия опубликованного состояния лифта; вызывает только Elevator
+    void set(int elevatorId, int currentFloor, Direction direction, ElevatorState state,
+             int passengerCount, int pendingCount, long[] stopFloors) {
+        this.elevatorId = elevatorId;
+        this.currentFloor = currentFloor;
+        this.direction = direction;
+        this.state = state;
+        this.passengerCount = passengerCount;
+        this.pendingCount = pendingCount;
+        System.arraycopy(stopFloors, 0, this.stopFloors, 0, this.stopFloors.length);
+    }
+
+    public int getElevatorId() {
+        return elevatorId;
+    }
+
+    public int getCurrentFloor() {
+        return currentFloor;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public ElevatorState getState() {
+        return state;
+    }
+
+    public int getPassengerCount() {
+        return passengerCount;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    // этаж есть в плане остановок (цель пассажира в кабине или этаж вызова)
+    public boolean hasStopAt(int floor) {
+        int word = floor >>> 6;
+        return floor >= 0 && word < stopFloors.length && (stopFloors[word] & (1L << floor)) != 0;
+    }
+
+    // остановится ли лифт на этаже, если продолжит текущий план
+    public boolean willStopAtFloor(int floor) {
+        if (floor == currentFloor || hasStopAt(floor)) {
+            return true;
+        }
+        if (direction == Direction.UP && floor > currentFloor) {
+            return true;
+        }
+        return direction == Direction.DOWN && floor < currentFloor;
+    }
+
+    @Override
+    public String toString() {
+        return "ElevatorSnapshot{id=" + (elevatorId + 1) + ", floor=" + (currentFloor + 1) +
+                ", direction=" + direction + ", state=" + state +
+                ", passengers=" + passengerCount + ", pending=" + pendingCount + "}";
+    }
+}
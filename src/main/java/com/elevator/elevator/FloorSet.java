@@ -0,0 +1,85 @@
+package com.elevator.elevator;
+
+// множество этажей на битовой маске: добавление, удаление и поиск ближайшего этажа
+// выше/ниже - битовые операции без обхода запросов и без аллокаций
+public class FloorSet {
+    private final long[] words;
+
+    public FloorSet(int floors) {
+        this.words = new long[(floors + 63) >>> 6];
+    }
+
+    public void add(int floor) {
+        words[floor >>> 6] |= 1L << floor;
+    }
+
+    public void remove(int floor) {
+        words[floor >>> 6] &= ~(1L << floor);
+    }
+
+    public boolean contains(int floor) {
+        int word = floor >>> 6;
+        return floor >= 0 && word < words.length && (words[word] & (1L << floor)) != 0;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ближайший этаж строго выше floor или -1
+    public int nextAbove(int floor) {
+        int from = floor + 1;
+        int index = from >>> 6;
+        if (from < 0 || index >= words.length) {
+            return -1;
+        }
+        long word = words[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+
+    // ближайший этаж строго ниже floor или -1
+    public int nextBelow(int floor) {
+        int from = Math.min(floor - 1, (words.length << 6) - 1);
+        if (from < 0) {
+            return -1;
+        }
+        int index = from >>> 6;
+        long word = words[index] & (-1L >>> (63 - (from & 63)));
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            if (index-- == 0) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+
+    // из двух результатов nextAbove/nextBelow (-1 - нет) выбирает ближайший к исходному этажу
+    static int closer(int a, int b, boolean above) {
+        if (a < 0) return b;
+        if (b < 0) return a;
+        return above ? Math.min(a, b) : Math.max(a, b);
+    }
+
+    // добавляет этажи этого множества в маску target (той же длины)
+    public void orInto(long[] target) {
+        for (int i = 0; i < words.length; i++) {
+            target[i] |= words[i];
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.elevator.elevator;
+
+// очередь FIFO примитивных long на кольцевом массиве: без объекта-обёртки на элемент,
+// растёт удвоением. Не потокобезопасна - используется под lock лифта
+public class LongQueue {
+    private static final int INITIAL_CAPACITY = 8; // степень двойки
+
+    private long[] elements;
+    private int head;
+    private int size;
+
+    public LongQueue() {
+        this(INITIAL_CAPACITY);
+    }
+
+    // сразу на capacity элементов - очередь с известным пределом потом не растёт
+    public LongQueue(int capacity) {
+        this.elements = new long[Math.max(INITIAL_CAPACITY, Integer.highestOneBit(capacity - 1) << 1)];
+    }
+
+    public void addLast(long value) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & (elements.length - 1)] = value;
+        size++;
+    }
+
+    // первый элемент; очередь не должна быть пустой
+    public long peekFirst() {
+        return elements[head];
+    }
+
+    // снимает первый элемент; очередь не должна быть пустой
+    public long pollFirst() {
+        long value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    // i-й элемент от начала
+    public long get(int i) {
+        return elements[(head + i) & (elements.length - 1)];
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] grown = new long[elements.length << 1];
+        for (int i = 0; i < size; i++) {
+            grown[i] = get(i);
+        }
+        elements = grown;
+        head = 0;
+    }
+}
@@ -0,0 +1,171 @@
+package com.elevator.elevator;
+
+import com.elevator.request.Request;
+import java.util.List;
+
+// Назначенные лифту вызовы, которые ещё ждут на этажах, разложенные по этажу вызова
+// и направлению. Битовые маски этажей с ожидающими дают проверку "кто-то ждёт здесь
+// в мою сторону?" за O(1), а посадка трогает только нужную очередь.
+// Ожидающий хранится двумя long подряд: упакованный вызов (целевой этаж, число передач,
+// время вызова) и номер поездки; этаж вызова и направление задаёт сама очередь, поэтому
+// объект Request на время ожидания не нужен - при перегрузке на этажах копятся миллионы
+// пассажиров. При посадке вызов так и остаётся парой long (ActiveRiders, события лифта),
+// Request создаётся только при передаче другому лифту.
+// Не потокобезопасен - используется под lock лифта.
+public class PendingCalls {
+    private static final int TARGET_BITS = 16;
+    private static final int TRANSFER_BITS = 6;
+    private static final int TIME_SHIFT = TARGET_BITS + TRANSFER_BITS;
+    private static final long MAX_TIMESTAMP = (1L << (64 - TIME_SHIFT)) - 1; // ~139 лет в мс
+    private static final int MAX_TRANSFERS = (1 << TRANSFER_BITS) - 1;
+
+    private final LongQueue[] upCalls;   // по этажу вызова, создаются лениво
+    private final LongQueue[] downCalls;
+    private final FloorSet upFloors;   // этажи, где ждут вверх
+    private final FloorSet downFloors; // этажи, где ждут вниз
+    private int size;
+
+    public PendingCalls(int floors) {
+        this.upCalls = new LongQueue[floors];
+        this.downCalls = new LongQueue[floors];
+        this.upFloors = new FloorSet(floors);
+        this.downFloors = new FloorSet(floors);
+    }
+
+    public void add(Request request) {
+        int floor = request.getCallFloor();
+        LongQueue[] calls = (request.getDirection() == Direction.DOWN) ? downCalls : upCalls;
+        if (calls[floor] == null) {
+            calls[floor] = new LongQueue();
+        }
+        calls[floor].addLast(pack(request));
+        calls[floor].addLast(request.getJourneyId());
+        floorsFor(request.getDirection()).add(floor);
+        size++;
+    }
+
+    // первый ожидающий на этаже в направлении direction переходит в конец target теми же двумя
+    // long (вызов, номер поездки) - посадка ничего не создаёт; false - на этаже никто не ждёт
+    public boolean poll(int floor, Direction direction, LongQueue target) {
+        LongQueue queue = (direction == Direction.DOWN) ? downCalls[floor] : upCalls[floor];
+        if (queue == null || queue.isEmpty()) {
+            return false;
+        }
+        target.addLast(queue.pollFirst());
+        target.addLast(queue.pollFirst());
+        size--;
+        if (queue.isEmpty()) {
+            floorsFor(direction).remove(floor);
+        }
+        return true;
+    }
+
+    // забирает в target ожидающих на этаже в направлении direction, которых передавали другому
+    // лифту меньше maxTransfers раз; остальные остаются в очереди по порядку. Возвращает сколько забрал
+    public int drain(int floor, Direction direction, int maxTransfers, List<Request> target) {
+        LongQueue queue = (direction == Direction.DOWN) ? downCalls[floor] : upCalls[floor];
+        if (queue == null || queue.isEmpty()) {
+            return 0;
+        }
+        int count = queue.size() / 2;
+        int drained = 0;
+        for (int i = 0; i < count; i++) {
+            long call = queue.pollFirst();
+            long journey = queue.pollFirst();
+            if (transfersOf(call) < maxTransfers) {
+                target.add(unpack(floor, direction, call, journey));
+                drained++;
+            } else {
+                queue.addLast(call); // по кругу - порядок оставшихся не меняется
+                queue.addLast(journey);
+            }
+        }
+        size -= drained;
+        if (queue.isEmpty()) {
+            floorsFor(direction).remove(floor);
+        }
+        return drained;
+    }
+
+    // первый ожидающий каждой непустой очереди (этаж + направление) в target
+    public void collectHeads(List<Request> target) {
+        for (int floor = upFloors.nextAbove(-1); floor >= 0; floor = upFloors.nextAbove(floor)) {
+            target.add(unpack(floor, Direction.UP, upCalls[floor].peekFirst(), upCalls[floor].get(1)));
+        }
+        for (int floor = downFloors.nextAbove(-1); floor >= 0; floor = downFloors.nextAbove(floor)) {
+            target.add(unpack(floor, Direction.DOWN, downCalls[floor].peekFirst(), downCalls[floor].get(1)));
+        }
+    }
+
+    // добавляет к counts[этаж] число ожидающих на этаже (в обоих направлениях)
+    public void countByFloor(int[] counts) {
+        for (int floor = upFloors.nextAbove(-1); floor >= 0; floor = upFloors.nextAbove(floor)) {
+            counts[floor] += upCalls[floor].size() / 2;
+        }
+        for (int floor = downFloors.nextAbove(-1); floor >= 0; floor = downFloors.nextAbove(floor)) {
+            counts[floor] += downCalls[floor].size() / 2;
+        }
+    }
+
+    public boolean hasCallsAt(int floor) {
+        return upFloors.contains(floor) || downFloors.contains(floor);
+    }
+
+    public boolean hasCallsAt(int floor, Direction direction) {
+        return floorsFor(direction).contains(floor);
+    }
+
+    // ближайший этаж с ожидающими (в любом направлении) выше/ниже floor или -1
+    public int nearestFloorAbove(int floor) {
+        return FloorSet.closer(upFloors.nextAbove(floor), downFloors.nextAbove(floor), true);
+    }
+
+    public int nearestFloorBelow(int floor) {
+        return FloorSet.closer(upFloors.nextBelow(floor), downFloors.nextBelow(floor), false);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // этажи вызова в маску остановок снимка
+    public void orFloorsInto(long[] target) {
+        upFloors.orInto(target);
+        downFloors.orInto(target);
+    }
+
+    // биты 0-15 - целевой этаж, 16-21 - передачи другому лифту, 22-63 - время вызова.
+    // В таком виде пассажир приходит и в событиях посадки и высадки (ElevatorEventListener)
+    static long pack(Request request) {
+        long timestamp = request.getTimestamp();
+        if (timestamp < 0 || timestamp > MAX_TIMESTAMP) {
+            throw new IllegalArgumentException("Время вызова вне диапазона: " + timestamp);
+        }
+        long transfers = Math.min(request.getTransfers(), MAX_TRANSFERS);
+        return (timestamp << TIME_SHIFT) | (transfers << TARGET_BITS) | request.getTargetFloor();
+    }
+
+    static Request unpack(int callFloor, Direction direction, long call, long journeyId) {
+        return new Request(callFloor, direction, targetOf(call), timestampOf(call), transfersOf(call), journeyId);
+    }
+
+    public static int targetOf(long call) {
+        return (int) (call & ((1 << TARGET_BITS) - 1));
+    }
+
+    public static int transfersOf(long call) {
+        return (int) (call >>> TARGET_BITS) & MAX_TRANSFERS;
+    }
+
+    public static long timestampOf(long call) {
+        return call >>> TIME_SHIFT;
+    }
+
+    private FloorSet floorsFor(Direction direction) {
+        return (direction == Direction.DOWN) ? downFloors : upFloors;
+    }
+}
@@ -0,0 +1,76 @@
+package com.elevator.event;
+
+import com.elevator.elevator.Direction;
+import com.elevator.elevator.ElevatorState;
+import com.elevator.request.Request;
+
+// рассылает события нескольким слушателям по порядку.
+// Массив, а не List: for-each по массиву не создаёт итератор на каждое событие лифта
+public class CompositeEventListener implements ElevatorEventListener {
+    private final ElevatorEventListener[] listeners;
+
+    public CompositeEventListener(ElevatorEventListener... listeners) {
+        for (ElevatorEventListener listener : listeners) {
+            if (listener == null) {
+                throw new NullPointerException("Слушатель не может быть null");
+            }
+        }
+        this.listeners = listeners.clone();
+    }
+
+    @Override
+    public void onStateChanged(int elevatorId, int floor, ElevatorState state, Direction direction) {
+        for (ElevatorEventListener listener : listeners) {
+            listener.onStateChanged(elevatorId, floor, state, direction);
+        }
+    }
+
+    @Override
+    public void onDoorsOpened(int elevatorId, int floor) {
+        for (ElevatorEventListener listener : listeners) {
+            listener.onDoorsOpened(elevatorId, floor);
+        }
+    }
+
+    @Override
+    public void onDoorsClosed(int elevatorId, int floor) {
+        for (ElevatorEventListener listener : listeners) {
+            listener.onDoorsClosed(elevatorId, floor);
+        }
+    }
+
+    @Override
+    public void onPassengerBoarded(int elevatorId, int floor, long call, long journeyId) {
+        for (ElevatorEventListener listener : listeners) {
+            listener.onPassengerBoarded(elevatorId, floor, call, journeyId);
+        }
+    }
+
+    @Override
+    public void onPassengerAlighted(int elevatorId, int floor, long call, long journeyId, long boardedAt) {
+        for (ElevatorEventListener listener : listeners) {
+            listener.onPassengerAlighted(elevatorId, floor, call, journeyId, boardedAt);
+        }
+    }
+
+    @Override
+    public void onPassengerArrived(Request request) {
+        for (ElevatorEventListener listener : listeners) {
+            listener.onPassengerArrived(request);
+        }
+    }
+
+    @Override
+    public void onRequestAssigned(int elevatorId, Request request, long latencyNanos) {
+        for (ElevatorEventListener listener : listeners) {
+            listener.onRequestAssigned(elevatorId, request, latencyNanos);
+        }
+    }
+
+    @Override
+    public void onRequestBatched(Request request, long queuedNanos) {
+        for (ElevatorEventListener listener : listeners) {
+            listener.onRequestBatched(request, queuedNanos);
+        }
+    }
+}
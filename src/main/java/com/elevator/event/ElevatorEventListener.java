@@ -0,0 +1,49 @@
+package com.elevator.event;
+
+import com.elevator.elevator.Direction;
+import com.elevator.elevator.ElevatorState;
+import com.elevator.request.Request;
+
+// наблюдатель за событиями лифтов: GUI, логирование, метрики.
+// Лифт не знает, кто его слушает - поэтому симуляция работает и без Swing.
+public interface ElevatorEventListener {
+
+    // слушатель, который ничего не делает
+    ElevatorEventListener NONE = new ElevatorEventListener() {
+    };
+
+    // лифт сменил этаж, состояние или направление
+    default void onStateChanged(int elevatorId, int floor, ElevatorState state, Direction direction) {
+    }
+
+    default void onDoorsOpened(int elevatorId, int floor) {
+    }
+
+    default void onDoorsClosed(int elevatorId, int floor) {
+    }
+
+    // пассажир вошёл в кабину на этаже вызова. Лифт не создаёт объектов на посадку, поэтому
+    // пассажир - примитивами: call - упакованный вызов (целевой этаж, передачи и время вызова -
+    // PendingCalls.targetOf/transfersOf/timestampOf), journeyId - номер поездки
+    default void onPassengerBoarded(int elevatorId, int floor, long call, long journeyId) {
+    }
+
+    // пассажир вышел на целевом этаже; boardedAt - время посадки по часам лифта (Elevator.setClock)
+    default void onPassengerAlighted(int elevatorId, int floor, long call, long journeyId, long boardedAt) {
+    }
+
+    // на этаже появился новый пассажир (генерирует Simulation); в зонированном здании
+    // следующий участок поездки - тоже приход, на этаже пересадки (BankRouter)
+    default void onPassengerArrived(Request request) {
+    }
+
+    // диспетчер назначил запрос лифту; latencyNanos - сколько занял расчёт назначения
+    // (handleRequest или часть пачки), без времени ожидания в пачке
+    default void onRequestAssigned(int elevatorId, Request request, long latencyNanos) {
+    }
+
+    // в пакетном режиме - сколько вызов пролежал в пачке до её расчёта (по часам процесса);
+    // приходит перед onRequestAssigned
+    default void onRequestBatched(Request request, long queuedNanos) {
+    }
+}
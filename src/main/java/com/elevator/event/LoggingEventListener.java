@@ -0,0 +1,34 @@
+package com.elevator.event;
+
+import com.elevator.request.Request;
+import com.elevator.util.Logger;
+
+// вывод событий лифтов в лог: двери - DEBUG, пассажиры - INFO
+public class LoggingEventListener implements ElevatorEventListener {
+    private static final Logger log = Logger.getLogger(LoggingEventListener.class);
+
+    @Override
+    public void onDoorsOpened(int elevatorId, int floor) {
+        log.debug("Лифт {} открыл двери на этаже {}", elevatorId + 1, floor + 1);
+    }
+
+    @Override
+    public void onDoorsClosed(int elevatorId, int floor) {
+        log.debug("Лифт {} закрыл двери на этаже {}", elevatorId + 1, floor + 1);
+    }
+
+    @Override
+    public void onPassengerBoarded(int elevatorId, int floor, long call, long journeyId) {
+        log.info("Лифт {} принял пассажира на этаже {}", elevatorId + 1, floor + 1);
+    }
+
+    @Override
+    public void onPassengerAlighted(int elevatorId, int floor, long call, long journeyId, long boardedAt) {
+        log.info("Лифт {} высадил пассажира на этаже {}", elevatorId + 1, floor + 1);
+    }
+
+    @Override
+    public void onPassengerArrived(Request request) {
+        log.info("Пассажир появился на этаже {}", request.getCallFloor() + 1);
+    }
+}
@@ -0,0 +1,125 @@
+package com.elevator.event;
+
+import com.elevator.elevator.Elevator;
+import com.elevator.elevator.ElevatorEventRing;
+import com.elevator.util.Logger;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// читатель колец событий всех лифтов в своём потоке: отдаёт события слушателю (GUI, лог)
+// так, что медленный слушатель отстаёт сам, а лифты продолжают работать.
+// У каждого насоса свои курсоры - несколько насосов читают одни кольца независимо.
+// Без событий поток спит всё дольше (от MIN до MAX_IDLE_PARK_NANOS), первое событие
+// возвращает паузу к минимуму - простаивающее здание почти не будит процессор
+public class RingEventPump implements ElevatorEventRing.Handler {
+    private static final Logger log = Logger.getLogger(RingEventPump.class);
+    private static final long MIN_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(64);
+
+    private final ElevatorEventRing.Cursor[] cursors;
+    private final ElevatorEventListener listener;
+    private volatile Runnable resyncHandler;
+    private long lostSeen; // потери, после которых уже была пересинхронизация
+    private Thread thread;
+
+    public RingEventPump(List<Elevator> elevators, ElevatorEventListener listener) {
+        this.cursors = new ElevatorEventRing.Cursor[elevators.size()];
+        for (int i = 0; i < cursors.length; i++) {
+            cursors[i] = elevators.get(i).getEvents().newCursor();
+        }
+        this.listener = listener;
+    }
+
+    // слушатель, который по событиям ведёт своё состояние (счётчики GUI), после пропуска событий
+    // должен перечитать его у лифтов: тогда при новых потерях курсоры догоняют кольца
+    // и вызывается handler (в потоке насоса)
+    public void setResyncHandler(Runnable handler) {
+        this.resyncHandler = handler;
+    }
+
+    // один проход по всем кольцам; возвращает количество отданных событий
+    public int pollOnce() {
+        int delivered = 0;
+        for (ElevatorEventRing.Cursor cursor : cursors) {
+            delivered += cursor.poll(this);
+        }
+        Runnable handler = resyncHandler;
+        if (handler != null) {
+            long lost = getLost();
+            if (lost > lostSeen) {
+                lostSeen = lost;
+                // отставшие события уже не нужны - состояние берётся заново, с текущего момента
+                for (ElevatorEventRing.Cursor cursor : cursors) {
+                    cursor.skipToEnd();
+                }
+                log.warn("Слушатель отстал от лифтов (пропущено событий: {}), состояние перечитано", lost);
+                try {
+                    handler.run();
+                } catch (Exception e) {
+                    log.error("Ошибка пересинхронизации слушателя", e);
+                }
+            }
+        }
+        return delivered;
+    }
+
+    @Override
+    public void onEvent(int elevatorId, long event, long call, long journeyId, long boardedAt) {
+        int floor = ElevatorEventRing.floorOf(event);
+        try {
+            switch (ElevatorEventRing.typeOf(event)) {
+                case ElevatorEventRing.STATE -> listener.onStateChanged(elevatorId, floor,
+                        ElevatorEventRing.stateOf(event), ElevatorEventRing.directionOf(event));
+                case ElevatorEventRing.DOORS_OPENED -> listener.onDoorsOpened(elevatorId, floor);
+                case ElevatorEventRing.DOORS_CLOSED -> listener.onDoorsClosed(elevatorId, floor);
+                case ElevatorEventRing.BOARDED -> listener.onPassengerBoarded(elevatorId, floor, call, journeyId);
+                case ElevatorEventRing.ALIGHTED -> listener.onPassengerAlighted(elevatorId, floor, call, journeyId, boardedAt);
+                default -> log.warn("Неизвестное событие лифта: {}", event);
+            }
+        } catch (Exception e) {
+            log.error("Ошибка слушателя событий", e);
+        }
+    }
+
+    // сколько событий пропущено из-за отставания от лифтов
+    public long getLost() {
+        long lost = 0;
+        for (ElevatorEventRing.Cursor cursor : cursors) {
+            lost += cursor.getLost();
+        }
+        return lost;
+    }
+
+    public void start(String name) {
+        thread = Thread.ofPlatform().name(name).daemon(true).start(() -> {
+            long idlePark = MIN_IDLE_PARK_NANOS;
+            while (!Thread.currentThread().isInterrupted()) {
+                if (pollOnce() > 0) {
+                    idlePark = MIN_IDLE_PARK_NANOS;
+                } else {
+                    LockSupport.parkNanos(idlePark);
+                    idlePark = Math.min(idlePark * 2, MAX_IDLE_PARK_NANOS);
+                }
+            }
+        });
+    }
+
+    // останавливает поток и дочитывает то, что лифты успели опубликовать
+    public void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+        pollOnce();
+        long lost = getLost();
+        if (lost > 0) {
+            log.warn("Слушатель отстал от лифтов, пропущено событий: {}", lost);
+        }
+    }
+}
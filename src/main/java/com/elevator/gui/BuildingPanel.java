@@ -1,13 +1,37 @@
 package com.elevator.gui;
 
 import com.elevator.config.BuildingConfig;
+import com.elevator.elevator.ElevatorEventRing;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+
+// отрисовка здания с фиксированной частотой кадров.
+// События лифтов только меняют модель (ElevatorGUI.ElevatorState, счётчики floorPassengers);
+// раз в кадр таймер сверяет модель с тем, что нарисовано, и перерисовывает
+// только изменившиеся области - старое и новое место лифта, строки этажей с пассажирами.
+// Статичный фон этажа закеширован в картинке, шрифты и цвета создаются один раз.
+// Рисуется только то, что попадает в clip (видимая часть JScrollPane или грязная область),
+// большая очередь на этаже - одним значком с числом, а не кружком на каждого
+public final class BuildingPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+    public static final int FRAMES_PER_SECOND = 60;
+    public static final int MAX_PASSENGER_DOTS = 12; //больше - значок с числом
+    private static final int PASSENGER_DOT = 12;
+
+    private static final int INDENT = 50; //отступы
+    private static final int MIN_SPACE = 15; //между лифтами
+
+    private static final Color BACKGROUND = new Color(134, 172, 196);
+    private static final Color BUILDING_FILL = new Color(220, 180, 190);
+    private static final Color BUILDING_OUTLINE = new Color(4, 84, 126);
+    private static final Color FLOOR_LINE = new Color(35, 86, 112);
+    private static final BasicStroke OUTLINE_STROKE = new BasicStroke(4);
+    private static final BasicStroke THIN_STROKE = new BasicStroke(1);
 
-
-public class BuildingPanel extends JPanel {
     private double scale = 1.0;
 
 
@@ -18,41 +42,80 @@ public class BuildingPanel extends JPanel {
     private int elevatorHeight;
     private final int totalFloors;
     private final int elevatorsCount;
-    private List<ElevatorGUI.ElevatorState> elevatorStates;
-    private Map<Integer, Integer> floorPassengers;
+    private transient List<ElevatorGUI.ElevatorState> elevatorStates;
+    private final AtomicIntegerArray floorPassengers;
 
+    // раскладка, пересчитывается при смене ширины или масштаба
+    private int layoutWidth = -1;
+    private int buildingWidth;
+    private int carWidth;
+    private int carHeight;
+    private int groupStartX;
+    private Font floorFont;
+    private Font carNumberFont;
+    private Font carFloorFont;
+    private Font queueFont;
+    private transient BufferedImage floorTile; //фон одного этажа: заливка, стены, линия пола
+    private final String[] floorLabels;
 
-    // ссновной экран
-    public BuildingPanel(List<ElevatorGUI.ElevatorState> elevatorStates, Map<Integer, Integer> floorPassengers) {
-        this.elevatorStates = elevatorStates;
-        this.floorPassengers = floorPassengers;
+    // что нарисовано в последнем кадре - читается и пишется только в EDT
+    private final long[] shownEvent; //упакованные этаж, состояние и направление
+    private final int[] shownPassengers;
+
+    private transient Timer frameTimer; // создаётся в addNotify, когда панель уже построена
 
-        this.totalFloors = BuildingConfig.TOTAL_FLOORS;
-        this.elevatorsCount = BuildingConfig.ELEVATORS_COUNT;
+
+    // ссновной экран
+    public BuildingPanel(BuildingConfig config, List<ElevatorGUI.ElevatorState> elevatorStates, AtomicIntegerArray floorPassengers) {
+        this.totalFloors = config.getTotalFloors();
+        this.elevatorsCount = config.getElevatorsCount();
         this.elevatorStates = elevatorStates;
         this.floorPassengers = floorPassengers;
         updateScaledDimensions();
 
-        setBackground(new Color(134, 172, 196));
+        this.floorLabels = new String[totalFloors];
+        for (int floor = 0; floor < totalFloors; floor++) {
+            floorLabels[floor] = String.valueOf(floor + 1);
+        }
+        this.shownPassengers = new int[totalFloors];
+        this.shownEvent = new long[elevatorsCount];
+        for (int i = 0; i < elevatorsCount; i++) {
+            shownEvent[i] = elevatorStates.get(i).getEvent();
+        }
+
+        setBackground(BACKGROUND);
+        setOpaque(true);
 
         int panelWidth = 1200;
         int panelHeight = totalFloors * floorHeight + 200; // +отступ
         setPreferredSize(new Dimension(panelWidth, panelHeight));
     }
 
+    // таймер кадров работает, пока панель на экране
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (frameTimer == null) {
+            frameTimer = new Timer(1000 / FRAMES_PER_SECOND, e -> renderFrame());
+            frameTimer.setCoalesce(true);
+        }
+        frameTimer.start();
+    }
 
-    public void setFloorPassengers(Map<Integer, Integer> floorPassengers) {
-        for (int i = 0; i < BuildingConfig.TOTAL_FLOORS; i++) {
-            int count = floorPassengers.getOrDefault(i, 0);
+    @Override
+    public void removeNotify() {
+        if (frameTimer != null) {
+            frameTimer.stop();
         }
-        this.floorPassengers = floorPassengers;
-        repaint();
+        super.removeNotify();
     }
+
     // обновление масштаба (от колёсика мышки)
     public void updateScale(double newScale) {
         this.scale = newScale;
         updateScaledDimensions();
         updatePanelSize();
+        layoutWidth = -1;
         repaint();
     }
 
@@ -70,94 +133,154 @@ public class BuildingPanel extends JPanel {
         revalidate();
     }
 
-    @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        drawBuilding(g);
-        drawElevators(g);
-        drawPassengers(g);
+    // один кадр: снимок модели, сравнение с нарисованным, перерисовка изменившихся областей
+    private void renderFrame() {
+        updateLayout();
+        for (int i = 0; i < elevatorsCount; i++) {
+            long event = elevatorStates.get(i).getEvent();
+            if (event != shownEvent[i]) {
+                repaintCar(i, ElevatorEventRing.floorOf(shownEvent[i]));
+                repaintCar(i, ElevatorEventRing.floorOf(event));
+                shownEvent[i] = event;
+            }
+        }
+        for (int floor = 0; floor < totalFloors; floor++) {
+            int passengers = floorPassengers.get(floor);
+            if (passengers != shownPassengers[floor]) {
+                shownPassengers[floor] = passengers;
+                repaint(INDENT, floorTop(floor), buildingWidth + 1, floorHeight + 1);
+            }
+        }
     }
 
-    //контур, этажи, номера этажей
-    private void drawBuilding(Graphics g) {
-        Graphics2D g2d = (Graphics2D) g;
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    // кабина вместе с номером этажа над ней
+    private void repaintCar(int index, int floor) {
+        int x = carX(index);
+        int y = floorTop(floor);
+        int labelHeight = carFloorFont.getSize() + 8;
+        repaint(x - 2, y - labelHeight, carWidth + 4, carHeight + labelHeight + 4);
+    }
 
-        int indent = 50; //отступы
-        int buildingWidth = Math.max(getWidth() - 2 * indent, 300);
-        //int buildingWidth = getWidth() - 2 * indent;
-        //if (buildingWidth < 300) buildingWidth = 300;
+    // пересчёт раскладки и кеша фона, если изменились ширина или масштаб
+    private void updateLayout() {
+        if (layoutWidth == getWidth() && floorTile != null) {
+            return;
+        }
+        layoutWidth = getWidth();
+        buildingWidth = Math.max(getWidth() - 2 * INDENT, 300);
 
-        int startX = indent;
-        int startY = indent;
+        // проверка. Если лифты не убираются - уменьшаются
+        int availableWidth = buildingWidth - 40;
+        carWidth = elevatorWidth;
+        if (elevatorsCount * (elevatorWidth + MIN_SPACE) - MIN_SPACE > availableWidth) {
+            carWidth = (availableWidth - (elevatorsCount - 1) * MIN_SPACE) / elevatorsCount;
+            carWidth = Math.max(carWidth, 25);
+        }
+        carHeight = (int)(carWidth * 1.5);
+        int totalGroupWidth = elevatorsCount * carWidth + (elevatorsCount - 1) * MIN_SPACE;
+        groupStartX = INDENT + (buildingWidth - totalGroupWidth) / 2;
+
+        floorFont = new Font("Arial", Font.BOLD, (int)(12 * scale));
+        carNumberFont = new Font("Arial", Font.BOLD, Math.max(10, carWidth / 3));
+        carFloorFont = new Font("Arial", Font.BOLD, Math.max(8, carWidth / 3));
+        queueFont = new Font("Arial", Font.BOLD, Math.max(10, (int)(12 * scale)));
+
+        // фон этажа: заливка, стены дома толщиной 4 и половинки линий перекрытий сверху и снизу
+        int tileHeight = Math.max(4, floorHeight);
+        floorTile = new BufferedImage(buildingWidth + 4, tileHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D tile = floorTile.createGraphics();
+        tile.setColor(BUILDING_FILL);
+        tile.fillRect(2, 0, buildingWidth, tileHeight);
+        tile.setColor(FLOOR_LINE);
+        tile.fillRect(2, 0, buildingWidth, 2);
+        tile.fillRect(2, tileHeight - 2, buildingWidth, 2);
+        tile.setColor(BUILDING_OUTLINE);
+        tile.fillRect(0, 0, 4, tileHeight);
+        tile.fillRect(buildingWidth, 0, 4, tileHeight);
+        tile.dispose();
+    }
 
-        //фон дома
-        g2d.setColor(new Color(220, 180, 190));
-        g2d.fillRect(startX, startY, buildingWidth, totalFloors * floorHeight);
+    // верх строки этажа, этаж 0 - внизу
+    private int floorTop(int floor) {
+        return INDENT + (totalFloors - floor - 1) * floorHeight;
+    }
 
-        //контур дома
-        g2d.setColor(new Color(4, 84, 126));
-        g2d.setStroke(new BasicStroke(4));
-        g2d.drawRect(startX, startY, buildingWidth, totalFloors * floorHeight);
+    private int carX(int index) {
+        return groupStartX + index * (carWidth + MIN_SPACE);
+    }
 
-        //этажи и номера, y - нижняяя граница этажа
-        for (int floor = 0; floor < totalFloors; floor++) {
+    // этаж, строка которого содержит y (за пределами здания - крайний этаж)
+    private int floorAt(int y) {
+        int rowFromTop = Math.floorDiv(y - INDENT, Math.max(1, floorHeight));
+        return Math.max(0, Math.min(totalFloors - 1, totalFloors - 1 - rowFromTop));
+    }
 
-            int passengerCount = floorPassengers.getOrDefault(floor, 0);
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        updateLayout();
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-            int lineY = startY + (totalFloors - floor) * floorHeight;
-            if (floor > 0) {
-                g2d.setColor(new Color(35, 86, 112));
-                g2d.drawLine(startX, lineY, startX + buildingWidth, lineY);
-            }
+        // видимые этажи по clip: сверху - с большим номером
+        Rectangle clip = g2d.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int lowFloor = floorAt(clip.y + clip.height);
+        int highFloor = floorAt(clip.y);
+
+        drawBuilding(g2d, lowFloor, highFloor);
+        drawElevators(g2d, clip);
+        drawPassengers(g2d, lowFloor, highFloor);
+    }
+
+    //контур, этажи, номера этажей - только с lowFloor по highFloor
+    private void drawBuilding(Graphics2D g2d, int lowFloor, int highFloor) {
+        g2d.setFont(floorFont);
+        FontMetrics fm = g2d.getFontMetrics();
+        for (int floor = lowFloor; floor <= highFloor; floor++) {
+            int floorY = floorTop(floor);
+            g2d.drawImage(floorTile, INDENT - 2, floorY, null);
 
             //номер этажа
             g2d.setColor(Color.DARK_GRAY);
-            g2d.setFont(new Font("Arial", Font.BOLD, (int)(12 * scale)));
-            String floorText = String.valueOf(floor + 1);
-
-            int textY = startY + (totalFloors - floor) * floorHeight - (floorHeight / 2);
-            FontMetrics fm = g2d.getFontMetrics();
+            String floorText = floorLabels[floor];
             int textWidth = fm.stringWidth(floorText);
-            g2d.drawString(floorText, startX - textWidth - 10, textY + 5);
+            g2d.drawString(floorText, INDENT - textWidth - 10, floorY + floorHeight / 2 + 5);
         }
-        //int topLineY = startY + totalFloors * floorHeight;
-        //g2d.setColor(new Color(184, 42, 42));
-        //g2d.drawLine(startX, topLineY, startX + buildingWidth, topLineY);
-    }
-
-    private void drawPassengers(Graphics g) {
-
-        if (floorPassengers == null) return;
-        Graphics2D g2d = (Graphics2D) g;
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        int indent = 50;
-        int buildingWidth = Math.max(getWidth() - 2 * indent, 300);
-        int startX = indent;
-        int startY = indent;
-        int floorHeight = (int)(BuildingConfig.BASE_FLOOR_HEIGHT * scale);
+        //крыша и пол
+        g2d.setColor(BUILDING_OUTLINE);
+        g2d.setStroke(OUTLINE_STROKE);
+        g2d.drawLine(INDENT, INDENT, INDENT + buildingWidth, INDENT);
+        g2d.drawLine(INDENT, INDENT + totalFloors * floorHeight, INDENT + buildingWidth, INDENT + totalFloors * floorHeight);
+        g2d.setStroke(THIN_STROKE);
+    }
 
-        for (int floor = 0; floor < BuildingConfig.TOTAL_FLOORS; floor++) {
-            Integer passengerCountObj = floorPassengers.get(floor);
-            int passengerCount = (passengerCountObj != null) ? passengerCountObj : 0;
+    //ожидающие - по снимку последнего кадра
+    private void drawPassengers(Graphics2D g2d, int lowFloor, int highFloor) {
+        for (int floor = lowFloor; floor <= highFloor; floor++) {
+            int passengerCount = shownPassengers[floor];
 
             if (passengerCount > 0) {
-                int floorY = startY + (BuildingConfig.TOTAL_FLOORS - floor - 1) * floorHeight;
-
-                // черные кружочки
-                g2d.setColor(Color.BLACK);
+                int floorY = floorTop(floor);
                 int spacing = buildingWidth / (passengerCount + 1);
 
+                // очередь не помещается кружками - один значок с числом
+                if (passengerCount > MAX_PASSENGER_DOTS || spacing < PASSENGER_DOT + 2) {
+                    drawQueueGlyph(g2d, floorY, passengerCount);
+                    continue;
+                }
+
                 for (int i = 0; i < passengerCount; i++) {
-                    int passengerX = startX + spacing * (i + 1);
+                    // черные кружочки с белой обводкой
+                    int passengerX = INDENT + spacing * (i + 1);
                     int passengerY = floorY + floorHeight / 2;
+                    g2d.setColor(Color.BLACK);
                     g2d.fillOval(passengerX - 6, passengerY - 6, 12, 12);
-
-                    // обводка
                     g2d.setColor(Color.WHITE);
                     g2d.drawOval(passengerX - 6, passengerY - 6, 12, 12);
-                    g2d.setColor(Color.BLACK);
                 }
             }
         }
@@ -166,73 +289,63 @@ public class BuildingPanel extends JPanel {
 
 
 
-    //лифты
-    private void drawElevators(Graphics g) {
-        Graphics2D g2d = (Graphics2D) g;
+    // кружок у левой стены и число ожидающих рядом
+    private void drawQueueGlyph(Graphics2D g2d, int floorY, int passengerCount) {
+        int centerY = floorY + floorHeight / 2;
+        int glyphX = INDENT + 12;
+        g2d.setColor(Color.BLACK);
+        g2d.fillOval(glyphX, centerY - PASSENGER_DOT / 2, PASSENGER_DOT, PASSENGER_DOT);
+        g2d.setColor(Color.WHITE);
+        g2d.drawOval(glyphX, centerY - PASSENGER_DOT / 2, PASSENGER_DOT, PASSENGER_DOT);
+        g2d.setColor(Color.BLACK);
+        g2d.setFont(queueFont);
+        g2d.drawString("\u00d7" + passengerCount, glyphX + PASSENGER_DOT + 4, centerY + queueFont.getSize() / 2 - 1);
+    }
 
-        int indent = 50;
-        int buildingWidth = Math.max(getWidth() - 2 * indent, 300);
-        //int buildingWidth = getWidth() - 2 * indent;
-        //if (buildingWidth < 300) buildingWidth = 300;
 
-        int startX = indent;
-        int startY = indent;
 
-        // проверка. Если лифты не убираются - уменьшаются
-        if (elevatorsCount > 0 && elevatorStates != null) {
-            int minSpace = 15;
-            int availableWidth = buildingWidth - 40;
-
-            int currentElevatorWidth = elevatorWidth;
-            if (elevatorsCount * (elevatorWidth + minSpace) - minSpace > availableWidth) {
-                currentElevatorWidth = (availableWidth - (elevatorsCount - 1) * minSpace) / elevatorsCount;
-                currentElevatorWidth = Math.max(currentElevatorWidth, 25);
-            }
+    //лифты - по снимку последнего кадра, только пересекающие clip
+    private void drawElevators(Graphics2D g2d, Rectangle clip) {
+        int labelHeight = carFloorFont.getSize() + 8;
+        for (int i = 0; i < elevatorsCount; i++) {
+            int currentFloor = ElevatorEventRing.floorOf(shownEvent[i]); // текущий этаж
 
-            int currentElevatorHeight = (int)(currentElevatorWidth * 1.5);
-            int totalGroupWidth = elevatorsCount * currentElevatorWidth + (elevatorsCount - 1) * minSpace;
-            int groupStartX = startX + (buildingWidth - totalGroupWidth) / 2;
-
-            //каждый лифт
-            for (int i = 0; i < elevatorsCount; i++) {
-                ElevatorGUI.ElevatorState state = elevatorStates.get(i);
-                int currentFloor = state.getCurrentFloor(); // текущий этаж
-
-                int elevatorX = groupStartX + i * (currentElevatorWidth + minSpace);
-
-                // -1 потому что этажи нумеруются с 0, но рисуются с 1
-                int elevatorY = startY + (totalFloors - currentFloor - 1) * floorHeight;
-
-                // цвет лифта зависит от состояния
-                g2d.setColor(state.getColor());
-                g2d.fillRect(elevatorX, elevatorY, currentElevatorWidth, currentElevatorHeight);
-
-                g2d.setColor(Color.DARK_GRAY);
-                g2d.drawRect(elevatorX, elevatorY, currentElevatorWidth, currentElevatorHeight);
-
-                //НОМЕР ЛИФТА
-                g2d.setColor(Color.BLACK);
-                g2d.setFont(new Font("Arial", Font.BOLD, Math.max(10, currentElevatorWidth / 3)));
-                String elevatorText = String.valueOf(i + 1);
-                FontMetrics fm = g2d.getFontMetrics();
-
-                // порядковый номер лифта в центре
-                int textWidth = fm.stringWidth(elevatorText);
-                int textHeight = fm.getHeight();
-                g2d.drawString(elevatorText,
-                        elevatorX + (currentElevatorWidth - textWidth) / 2,
-                        elevatorY + (currentElevatorHeight + textHeight) / 2 - 3);
-
-                //номер этажа, на котором лифт сейчас
-                g2d.setColor(Color.BLACK);
-                g2d.setFont(new Font("Arial", Font.BOLD, Math.max(8, currentElevatorWidth / 3)));
-                String floorText = String.valueOf(currentFloor + 1); // этаж + 1
-                int floorTextWidth = g2d.getFontMetrics().stringWidth(floorText);
-
-                g2d.drawString(floorText,
-                        elevatorX + (currentElevatorWidth - floorTextWidth) / 2,
-                        elevatorY - 5);
+            int elevatorX = carX(i);
+            int elevatorY = floorTop(currentFloor);
+            if (!clip.intersects(elevatorX - 2, elevatorY - labelHeight, carWidth + 4, carHeight + labelHeight + 4)) {
+                continue;
             }
+
+            // цвет лифта зависит от состояния
+            g2d.setColor(ElevatorGUI.colorOf(shownEvent[i]));
+            g2d.fillRect(elevatorX, elevatorY, carWidth, carHeight);
+
+            g2d.setColor(Color.DARK_GRAY);
+            g2d.drawRect(elevatorX, elevatorY, carWidth, carHeight);
+
+            //НОМЕР ЛИФТА в центре
+            g2d.setColor(Color.BLACK);
+            g2d.setFont(carNumberFont);
+            String elevatorText = carLabel(i);
+            FontMetrics fm = g2d.getFontMetrics();
+            int textWidth = fm.stringWidth(elevatorText);
+            int textHeight = fm.getHeight();
+            g2d.drawString(elevatorText,
+                    elevatorX + (carWidth - textWidth) / 2,
+                    elevatorY + (carHeight + textHeight) / 2 - 3);
+
+            //номер этажа, на котором лифт сейчас
+            g2d.setFont(carFloorFont);
+            String floorText = floorLabels[currentFloor];
+            int floorTextWidth = g2d.getFontMetrics().stringWidth(floorText);
+            g2d.drawString(floorText,
+                    elevatorX + (carWidth - floorTextWidth) / 2,
+                    elevatorY - 5);
         }
     }
-}
\ No newline at end of file
+
+    // номера лифтов те же строки, что и номера этажей, если лифтов не больше этажей
+    private String carLabel(int index) {
+        return index < floorLabels.length ? floorLabels[index] : String.valueOf(index + 1);
+    }
+}
@@ -8,22 +8,39 @@ import java.util.ArrayList;
 import java.util.*;
 import java.util.List;
 import com.elevator.config.BuildingConfig;
-import java.util.concurrent.ConcurrentHashMap;
+import com.elevator.elevator.Direction;
+import com.elevator.elevator.Elevator;
+import com.elevator.elevator.ElevatorEventRing;
+import com.elevator.event.ElevatorEventListener;
+import com.elevator.request.Request;
+import com.elevator.util.Logger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 
-public class ElevatorGUI extends JFrame {
+public class ElevatorGUI extends JFrame implements ElevatorEventListener {
+    private static final Logger log = Logger.getLogger(ElevatorGUI.class);
+
+    // цвета состояний - готовые объекты, события лифтов ничего не создают
+    private static final Color COLOR_MOVING_UP = new Color(206, 12, 47);
+    private static final Color COLOR_MOVING_DOWN = new Color(140, 12, 10);
+    private static final Color COLOR_DOORS_OPEN = new Color(246, 221, 133);
+    private static final Color COLOR_STOPPED = new Color(160, 123, 87);
+
     private BuildingPanel buildingPanel;
 
     private double scale = 1.0;
 
     //состояния всех лифтов: текущий этаж, этаж цель, статус, цвет
     private List<ElevatorState> elevatorStates;
-    private final Map<Integer, Integer> floorPassengers = new ConcurrentHashMap<>();
+    //ожидающие на этажах: счётчик на этаж, меняется атомарно из любого потока, без упаковки
+    private final AtomicIntegerArray floorPassengers;
+    private final BuildingConfig config;
 
-    public ElevatorGUI() {
+    public ElevatorGUI(BuildingConfig config) {
+        this.config = config;
         //все лифты изначально на 1 этаже
         elevatorStates = initializeElevatorStates();
-        initializePassengerMap();
+        floorPassengers = new AtomicIntegerArray(config.getTotalFloors());
 
         //окно основное
         setTitle("Elevator System");
@@ -34,82 +51,76 @@ public class ElevatorGUI extends JFrame {
         setupListeners();
     }
 
-    private void initializePassengerMap() {
-    }
-
-    //добавить пассажира на этаж
+    //добавить пассажира на этаж (из любого потока; на экране - в ближайшем кадре)
     public void addPassengerToFloor(int floor) {
-        if (floor >= 0 && floor < BuildingConfig.TOTAL_FLOORS) {
-            int current = floorPassengers.getOrDefault(floor, 0);
-            floorPassengers.put(floor, current + 1);
-            System.out.println("Пассажир появился на этаже " + (floor + 1) +
-                    ". Теперь там: " + floorPassengers.get(floor) + " пассажиров");
-            buildingPanel.setFloorPassengers(floorPassengers);
-            buildingPanel.repaint();
+        if (floor >= 0 && floor < config.getTotalFloors()) {
+            floorPassengers.incrementAndGet(floor);
         } else {
-            System.err.println("Ошибка: неверный номер этажа " + floor);
+            log.error("Неверный номер этажа {}", floor);
         }
     }
 
-    // удалить пассажира с этажа
+    // удалить пассажира с этажа - CAS, чтобы счётчик не ушёл ниже нуля
     public void removePassengerFromFloor(int floor) {
-        if (floor >= 0 && floor < BuildingConfig.TOTAL_FLOORS) {
-            int current = floorPassengers.getOrDefault(floor, 0);
-            if (current > 0) {
-                floorPassengers.put(floor, current - 1);
-
-            } else {
-                System.err.println("Предупреждение: попытка удалить пассажира с пустого этажа " + (floor + 1));
-            }
-            buildingPanel.setFloorPassengers(floorPassengers);
-            buildingPanel.repaint();
+        if (floor >= 0 && floor < config.getTotalFloors()) {
+            int current;
+            do {
+                current = floorPassengers.get(floor);
+                if (current == 0) {
+                    log.warn("Попытка удалить пассажира с пустого этажа {}", floor + 1);
+                    return;
+                }
+            } while (!floorPassengers.compareAndSet(floor, current, current - 1));
         } else {
-            System.err.println("Ошибка: неверный номер этажа " + floor);
+            log.error("Неверный номер этажа {}", floor);
         }
     }
 
     // получить количество пассажиров на этаже
-    public synchronized int getPassengerCountOnFloor(int floor) {
-        if (floor >= 0 && floor < BuildingConfig.TOTAL_FLOORS) {
-            return floorPassengers.getOrDefault(floor, 0);
+    public int getPassengerCountOnFloor(int floor) {
+        if (floor >= 0 && floor < config.getTotalFloors()) {
+            return floorPassengers.get(floor);
         }
         return 0;
     }
 
+    // последнее состояние лифта для экрана: одно упакованное событие ElevatorEventRing.pack
+    // (этаж, ElevatorState, Direction). Пишется из потока лифта, читается таймером кадров в EDT
+    // одним volatile-чтением - этаж и состояние всегда из одного события
     public static class ElevatorState {
-        private int currentFloor;  // текущий этаж лифта
-        private int targetFloor;   // этаж цель
-        private String status;     // текущее состояние: STOPPED, MOVING_UP, MOVING_DOWN, DOORS_OPEN
-        private Color color;       // цвет лифта
+        private volatile long event;
 
 
         public ElevatorState(int startFloor) {
-            this.currentFloor = startFloor;
-            this.targetFloor = startFloor;
-            this.status = "STOPPED";
-            this.color = new Color(180, 180, 180);
+            this.event = ElevatorEventRing.pack(startFloor, com.elevator.elevator.ElevatorState.STOPPED, Direction.WAIT);
         }
 
 
 
-        public int getCurrentFloor() { return currentFloor; }
-        public void setCurrentFloor(int floor) { this.currentFloor = floor; }
+        public long getEvent() { return event; }
+        public void setEvent(long event) { this.event = event; }
 
-        public int getTargetFloor() { return targetFloor; }
-        public void setTargetFloor(int floor) { this.targetFloor = floor; }
+        public int getCurrentFloor() { return ElevatorEventRing.floorOf(event); }
 
-        public String getStatus() { return status; }
-        public void setStatus(String status) { this.status = status; }
+        public com.elevator.elevator.ElevatorState getState() { return ElevatorEventRing.stateOf(event); }
 
-        public Color getColor() { return color; }
-        public void setColor(Color color) { this.color = color; }
+        public Direction getDirection() { return ElevatorEventRing.directionOf(event); }
+    }
+
+    // цвет лифта по упакованному событию
+    public static Color colorOf(long event) {
+        return switch (ElevatorEventRing.stateOf(event)) {
+            case MOVING -> ElevatorEventRing.directionOf(event) == Direction.DOWN ? COLOR_MOVING_DOWN : COLOR_MOVING_UP;
+            case DOORS_OPEN -> COLOR_DOORS_OPEN;
+            case STOPPED -> COLOR_STOPPED;
+        };
     }
 
 
     private List<ElevatorState> initializeElevatorStates() {
         List<ElevatorState> states = new ArrayList<>();
 
-        int elevatorsCount = BuildingConfig.ELEVATORS_COUNT;;
+        int elevatorsCount = config.getElevatorsCount();
 
         for (int i = 0; i < elevatorsCount; i++) {
             states.add(new ElevatorState(0));
@@ -117,37 +128,52 @@ public class ElevatorGUI extends JFrame {
         return states;
     }
 
-    //на будущее цвета
-    public void updateElevatorState(int elevatorId, int currentFloor, int targetFloor, String status) {
-        // id лифта -- отображаемый номер -1
-        if (elevatorId >= 0 && elevatorId < elevatorStates.size()) {
-            ElevatorState state = elevatorStates.get(elevatorId);
-
-            state.setCurrentFloor(currentFloor);
-            state.setTargetFloor(targetFloor);
-            state.setStatus(status);
-
-            switch (status.toUpperCase()) {
-                case "MOVING_UP" ->
-                        state.setColor(new Color(206, 12, 47));
-                case "MOVING_DOWN" ->
-                        state.setColor(new Color(140, 12, 10));
-                case "DOORS_OPEN" ->
-                        state.setColor(new Color(246, 221, 133));
-                default ->
-                        state.setColor(new Color(160, 123, 87));
-            }
+    // события лифтов приходят из их потоков: состояние лифта и счётчики пассажиров
+    // только записываются в модель, на экран их выводит таймер кадров BuildingPanel
+    @Override
+    public void onStateChanged(int elevatorId, int floor, com.elevator.elevator.ElevatorState state, Direction direction) {
+        updateElevatorState(elevatorId, floor, state, direction);
+    }
 
-            //перерисовка
-            SwingUtilities.invokeLater(() -> buildingPanel.repaint());
+    @Override
+    public void onPassengerBoarded(int elevatorId, int floor, long call, long journeyId) {
+        removePassengerFromFloor(floor);
+    }
+
+    @Override
+    public void onPassengerArrived(Request request) {
+        addPassengerToFloor(request.getCallFloor());
+    }
+
+    // модель заново по лифтам, когда часть событий пропущена (RingEventPump.setResyncHandler):
+    // ожидающие на этажах - по очередям лифтов, состояние кабин - последнее из кольца
+    public void resync(List<Elevator> elevators) {
+        int[] waiting = new int[config.getTotalFloors()];
+        for (Elevator elevator : elevators) {
+            elevator.countWaitingByFloor(waiting);
+            long state = elevator.getEvents().latestState();
+            int elevatorId = elevator.getElevatorId();
+            if (state >= 0 && elevatorId < elevatorStates.size()) {
+                elevatorStates.get(elevatorId).setEvent(state);
+            }
+        }
+        for (int floor = 0; floor < waiting.length; floor++) {
+            floorPassengers.set(floor, waiting[floor]);
+        }
+    }
 
+    // можно вызывать из любого потока: перерисовка будет в ближайшем кадре
+    public void updateElevatorState(int elevatorId, int currentFloor, com.elevator.elevator.ElevatorState state, Direction direction) {
+        // id лифта -- отображаемый номер -1
+        if (elevatorId >= 0 && elevatorId < elevatorStates.size()) {
+            elevatorStates.get(elevatorId).setEvent(ElevatorEventRing.pack(currentFloor, state, direction));
         } else {
-            System.err.println("Ошибка: неверный ID лифта " + elevatorId);
+            log.error("Неверный ID лифта {}", elevatorId);
         }
     }
 
     private void initComponents() {
-        buildingPanel = new BuildingPanel(elevatorStates, floorPassengers);
+        buildingPanel = new BuildingPanel(config, elevatorStates, floorPassengers);
         JScrollPane scrollPane = new JScrollPane(buildingPanel);
 
         scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
@@ -179,11 +205,5 @@ public class ElevatorGUI extends JFrame {
             }
         });
 
-        buildingPanel.addComponentListener(new java.awt.event.ComponentAdapter() {
-            public void componentResized(java.awt.event.ComponentEvent evt) {
-                //перерисовка
-                buildingPanel.repaint();
-            }
-        });
     }
 }
\ No newline at end of file
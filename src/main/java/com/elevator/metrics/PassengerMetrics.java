@@ -0,0 +1,142 @@
+package com.elevator.metrics;
+
+import com.elevator.elevator.Direction;
+import com.elevator.elevator.ElevatorState;
+import com.elevator.elevator.PendingCalls;
+import com.elevator.event.ElevatorEventListener;
+import com.elevator.request.Request;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+// метрики пассажиров и лифтов по событиям:
+//   ожидание - от вызова (Request.timestamp) до посадки, поездка - от посадки до высадки
+//   (при пересадках между банками - по каждому участку, вызов участка - выход на пересадке),
+//   загрузка лифта - доля времени в движении, с открытыми дверями и в простое,
+//   задержка диспетчера - время расчёта назначения, ожидание пачки - сколько вызов копился
+//   в пакетном режиме до расчёта (по часам процесса; в виртуальном времени окно не видно).
+// Всё пишется без блокировок, отчёт можно снимать на ходу (toString) и в конце прогона
+public class PassengerMetrics implements ElevatorEventListener {
+    private static final int STATES = ElevatorState.values().length;
+    private static final int MAX_CARS_IN_REPORT = 16; // больше - только среднее по зданию
+
+    private final LongSupplier clock; // мс, те же часы, что ставят Request.timestamp и время посадки в лифте
+    private final int elevatorsCount;
+
+    private final LatencyHistogram waitTime = new LatencyHistogram("мс");
+    private final LatencyHistogram rideTime = new LatencyHistogram("мс");
+    private final LatencyHistogram dispatchLatency = new LatencyHistogram("нс");
+    private final LatencyHistogram batchDelay = new LatencyHistogram("нс");
+
+    // по лифтам: текущее состояние, с какого момента и накопленное время в каждом состоянии
+    // (пишет только поток, который крутит этот лифт; Atomic* - чтобы отчёт видел свежие значения)
+    private final AtomicIntegerArray currentState;
+    private final AtomicLongArray stateSince;
+    private final AtomicLongArray stateTime;
+
+    public PassengerMetrics(int elevatorsCount, LongSupplier clock) {
+        this.clock = clock;
+        this.elevatorsCount = elevatorsCount;
+        this.currentState = new AtomicIntegerArray(elevatorsCount);
+        this.stateSince = new AtomicLongArray(elevatorsCount);
+        this.stateTime = new AtomicLongArray(elevatorsCount * STATES);
+        for (int i = 0; i < elevatorsCount; i++) {
+            currentState.set(i, -1); // ещё не было событий
+        }
+    }
+
+    @Override
+    public void onStateChanged(int elevatorId, int floor, ElevatorState state, Direction direction) {
+        long now = clock.getAsLong();
+        int previous = currentState.get(elevatorId);
+        if (previous >= 0) {
+            stateTime.addAndGet(elevatorId * STATES + previous, now - stateSince.get(elevatorId));
+        }
+        stateSince.set(elevatorId, now);
+        currentState.set(elevatorId, state.ordinal());
+    }
+
+    @Override
+    public void onPassengerBoarded(int elevatorId, int floor, long call, long journeyId) {
+        waitTime.record(clock.getAsLong() - PendingCalls.timestampOf(call));
+    }
+
+    @Override
+    public void onPassengerAlighted(int elevatorId, int floor, long call, long journeyId, long boardedAt) {
+        rideTime.record(clock.getAsLong() - boardedAt);
+    }
+
+    @Override
+    public void onRequestAssigned(int elevatorId, Request request, long latencyNanos) {
+        dispatchLatency.record(latencyNanos);
+    }
+
+    @Override
+    public void onRequestBatched(Request request, long queuedNanos) {
+        batchDelay.record(queuedNanos);
+    }
+
+    public LatencyHistogram getWaitTime() {
+        return waitTime;
+    }
+
+    public LatencyHistogram getRideTime() {
+        return rideTime;
+    }
+
+    public LatencyHistogram getDispatchLatency() {
+        return dispatchLatency;
+    }
+
+    public LatencyHistogram getBatchDelay() {
+        return batchDelay;
+    }
+
+    // время лифта в состоянии, мс - с учётом текущего, ещё не закончившегося
+    public long getTimeInState(int elevatorId, ElevatorState state) {
+        long time = stateTime.get(elevatorId * STATES + state.ordinal());
+        if (currentState.get(elevatorId) == state.ordinal()) {
+            time += Math.max(0, clock.getAsLong() - stateSince.get(elevatorId));
+        }
+        return time;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append("ожидание: ").append(waitTime).append('\n');
+        report.append("поездка: ").append(rideTime).append('\n');
+        report.append("назначение запроса: ").append(dispatchLatency).append('\n');
+        if (batchDelay.getCount() > 0) {
+            report.append("ожидание пачки: ").append(batchDelay).append('\n');
+        }
+
+        long[] building = new long[STATES];
+        for (int id = 0; id < elevatorsCount; id++) {
+            long[] car = new long[STATES];
+            for (ElevatorState state : ElevatorState.values()) {
+                car[state.ordinal()] = getTimeInState(id, state);
+                building[state.ordinal()] += car[state.ordinal()];
+            }
+            if (elevatorsCount <= MAX_CARS_IN_REPORT) {
+                report.append("лифт ").append(id + 1).append(": ").append(utilization(car)).append('\n');
+            }
+        }
+        report.append("все лифты: ").append(utilization(building));
+        return report.toString();
+    }
+
+    private static String utilization(long[] time) {
+        long total = 0;
+        for (long t : time) {
+            total += t;
+        }
+        if (total == 0) {
+            return "нет данных";
+        }
+        return String.format("движение %.1f%%, двери %.1f%%, простой %.1f%%",
+                100.0 * time[ElevatorState.MOVING.ordinal()] / total,
+                100.0 * time[ElevatorState.DOORS_OPEN.ordinal()] / total,
+                100.0 * time[ElevatorState.STOPPED.ordinal()] / total);
+    }
+}
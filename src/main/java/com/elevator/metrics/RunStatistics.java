@@ -0,0 +1,65 @@
+package com.elevator.metrics;
+
+import com.elevator.elevator.Direction;
+import com.elevator.elevator.ElevatorState;
+import com.elevator.event.ElevatorEventListener;
+import com.elevator.request.Request;
+import java.util.concurrent.atomic.LongAdder;
+
+// счётчики прогона: сколько пассажиров появилось, перевезено, сколько переездов и циклов дверей.
+// Поездка с пересадками считается по участкам (BankRouter), поездок = выходов - пересадок
+public class RunStatistics implements ElevatorEventListener {
+    private final LongAdder arrived = new LongAdder();
+    private final LongAdder boarded = new LongAdder();
+    private final LongAdder alighted = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder doorCycles = new LongAdder();
+
+    @Override
+    public void onStateChanged(int elevatorId, int floor, ElevatorState state, Direction direction) {
+        if (state == ElevatorState.MOVING) {
+            moves.increment();
+        }
+    }
+
+    @Override
+    public void onDoorsOpened(int elevatorId, int floor) {
+        doorCycles.increment();
+    }
+
+    @Override
+    public void onPassengerBoarded(int elevatorId, int floor, long call, long journeyId) {
+        boarded.increment();
+    }
+
+    @Override
+    public void onPassengerAlighted(int elevatorId, int floor, long call, long journeyId, long boardedAt) {
+        alighted.increment();
+    }
+
+    @Override
+    public void onPassengerArrived(Request request) {
+        arrived.increment();
+    }
+
+    public long getArrived() {
+        return arrived.sum();
+    }
+
+    public long getBoarded() {
+        return boarded.sum();
+    }
+
+    public long getAlighted() {
+        return alighted.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "пассажиров: " + arrived.sum() +
+                ", вошли: " + boarded.sum() +
+                ", доставлены: " + alighted.sum() +
+                ", переездов: " + moves.sum() +
+                ", открытий дверей: " + doorCycles.sum();
+    }
+}
@@ -1,21 +1,39 @@
 package com.elevator.request;
 import com.elevator.elevator.Direction;
+import java.util.concurrent.atomic.AtomicLong;
 
 //запросы пассажиров
 
 public class Request {
+    private static final AtomicLong NEXT_JOURNEY = new AtomicLong(); // номера поездок с 1
 
     // константы
     private final int callFloor; //на каком этаже вызывается лифт
     private final Direction direction; //up down
     private final int targetFloor; // на какой этаж хочет
     private final long timestamp; // время вызова
+    private final long journeyId; // поездка целиком: у всех участков с пересадками один номер
+    private final int transfers; // сколько раз вызов передавали другому лифту
 
     public Request(int callFloor, Direction direction, int targetFloor) {
+        this(callFloor, direction, targetFloor, System.currentTimeMillis());
+    }
+
+    // timestamp задаётся явно, когда время виртуальное (дискретно-событийная симуляция);
+    // новая поездка - новый номер
+    public Request(int callFloor, Direction direction, int targetFloor, long timestamp) {
+        this(callFloor, direction, targetFloor, timestamp, 0, NEXT_JOURNEY.incrementAndGet());
+    }
+
+    // вызов восстанавливается из упакованного вида (ожидание в лифте) или это следующий участок
+    // поездки journeyId
+    public Request(int callFloor, Direction direction, int targetFloor, long timestamp, int transfers, long journeyId) {
         this.callFloor = callFloor;
         this.direction = direction;
         this.targetFloor = targetFloor;
-        this.timestamp = System.currentTimeMillis();
+        this.timestamp = timestamp;
+        this.transfers = transfers;
+        this.journeyId = journeyId;
     }
 
     //геттеры
@@ -35,12 +53,32 @@ public class Request {
         return targetFloor;
     }
 
+    //время вызова, мс
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    //номер поездки; участки одной поездки (BankRouter) - с одним номером
+    public long getJourneyId() {
+        return journeyId;
+    }
+
+    //сколько раз вызов забирал другой лифт (CallRebalancer)
+    public int getTransfers() {
+        return transfers;
+    }
+
+    //тот же вызов, переданный другому лифту ещё раз
+    public Request transferred() {
+        return new Request(callFloor, direction, targetFloor, timestamp, transfers + 1, journeyId);
+    }
+
 
 
+    // время вызова как есть: часы бывают виртуальными, возраст по системным часам был бы неверным
     @Override
     public String toString() {
-        return String.format("Request{callFloor=%d->%d, direction=%s, age=%dms}",
-                callFloor + 1, targetFloor + 1, direction,
-                System.currentTimeMillis() - timestamp);
+        return String.format("Request{callFloor=%d->%d, direction=%s, timestamp=%d}",
+                callFloor + 1, targetFloor + 1, direction, timestamp);
     }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.elevator.trace;
+
+// двоичный формат трассы запросов (big-endian):
+//   заголовок HEADER_SIZE байт: magic "ELTR", версия, размер записи, этажей в здании,
+//   базовое время (timestamp первого запроса, мс), количество записей
+//   запись RECORD_SIZE байт: сдвиг времени от предыдущей записи (int, мс),
+//   этаж вызова (short), целевой этаж (short), направление (byte, Direction.ordinal)
+// Этажи - беззнаковые 16 бит (0..65535, как BuildingConfig.MAX_TOTAL_FLOORS). Версия 1 читалась
+// со знаком и ломалась на этажах от 32768; сами записи версии 1 те же, поэтому читаются обе.
+// Записи фиксированной длины, поэтому многодневную трассу можно читать окнами mmap
+public final class TraceFormat {
+    public static final int MAGIC = 0x454C5452; // "ELTR"
+    public static final short VERSION = 2;
+    static final short FIRST_VERSION = 1;       // самая старая версия, которую читает TraceReader
+    public static final int MAX_FLOORS = 1 << 16; // этаж - беззнаковый short
+    public static final int HEADER_SIZE = 32;
+    public static final int RECORD_SIZE = 9;
+
+    // смещения полей заголовка
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int RECORD_SIZE_OFFSET = 6;
+    static final int FLOORS_OFFSET = 8;
+    static final int BASE_TIME_OFFSET = 12;
+    static final int COUNT_OFFSET = 20;
+
+    private TraceFormat() {
+    }
+}
@@ -0,0 +1,102 @@
+package com.elevator.trace;
+
+import com.elevator.elevator.Direction;
+import com.elevator.request.Request;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// чтение трассы потоком через отображение файла в память (mmap) окнами по WINDOW_RECORDS записей,
+// поэтому трасса за много дней не загружается целиком. Запросы выдаются по порядку,
+// timestamp каждого - абсолютное время записи (базовое время заголовка + сдвиги)
+public class TraceReader implements Closeable {
+    private static final int WINDOW_RECORDS = 4 * 1024 * 1024; // ~36 МБ на окно
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final FileChannel channel;
+    private final int totalFloors;
+    private final long baseTime;
+    private final long count;
+
+    private MappedByteBuffer window;
+    private long windowStart; // номер первой записи окна
+    private long position;    // номер следующей записи
+    private long time;
+
+    public TraceReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(TraceFormat.HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                break;
+            }
+        }
+        if (header.hasRemaining() || header.getInt(TraceFormat.MAGIC_OFFSET) != TraceFormat.MAGIC) {
+            channel.close();
+            throw new IOException("Не файл трассы: " + file);
+        }
+        short version = header.getShort(TraceFormat.VERSION_OFFSET);
+        if (version < TraceFormat.FIRST_VERSION || version > TraceFormat.VERSION
+                || header.getShort(TraceFormat.RECORD_SIZE_OFFSET) != TraceFormat.RECORD_SIZE) {
+            channel.close();
+            throw new IOException("Неподдерживаемая версия трассы: " + file);
+        }
+        this.totalFloors = header.getInt(TraceFormat.FLOORS_OFFSET);
+        this.baseTime = header.getLong(TraceFormat.BASE_TIME_OFFSET);
+        // запись могла оборваться без close() - тогда считаем записи по длине файла
+        long recorded = header.getLong(TraceFormat.COUNT_OFFSET);
+        long available = (channel.size() - TraceFormat.HEADER_SIZE) / TraceFormat.RECORD_SIZE;
+        this.count = (recorded > 0) ? Math.min(recorded, available) : available;
+        this.time = baseTime;
+    }
+
+    public int getTotalFloors() {
+        return totalFloors;
+    }
+
+    public long getBaseTime() {
+        return baseTime;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean hasNext() {
+        return position < count;
+    }
+
+    // следующий запрос трассы
+    public Request next() throws IOException {
+        if (window == null || position - windowStart >= WINDOW_RECORDS) {
+            mapWindow();
+        }
+        time += window.getInt();
+        int callFloor = Short.toUnsignedInt(window.getShort());
+        int targetFloor = Short.toUnsignedInt(window.getShort());
+        Direction direction = DIRECTIONS[window.get()];
+        position++;
+        return new Request(callFloor, direction, targetFloor, time);
+    }
+
+    private void mapWindow() throws IOException {
+        if (!hasNext()) {
+            throw new IOException("Трасса закончилась");
+        }
+        windowStart = position;
+        long records = Math.min(WINDOW_RECORDS, count - position);
+        window = channel.map(FileChannel.MapMode.READ_ONLY,
+                TraceFormat.HEADER_SIZE + position * TraceFormat.RECORD_SIZE,
+                records * TraceFormat.RECORD_SIZE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,103 @@
+package com.elevator.trace;
+
+import com.elevator.request.Request;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// запись трассы: каждый исходный запрос (до деления на участки), прошедший через BankRouter.handleRequest.
+// Записи копятся в буфере и сбрасываются в файл пачками; количество записей
+// попадает в заголовок при close(). record() можно вызывать из нескольких потоков
+public class TraceRecorder implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final int totalFloors;
+    private long baseTime = -1;
+    private long lastTime;
+    private long count;
+    private boolean closed;
+
+    public TraceRecorder(Path file, int totalFloors) throws IOException {
+        if (totalFloors < 1 || totalFloors > TraceFormat.MAX_FLOORS) {
+            throw new IllegalArgumentException("Этажей в трассе может быть от 1 до " + TraceFormat.MAX_FLOORS +
+                    ": " + totalFloors);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.totalFloors = totalFloors;
+        writeHeader();
+        channel.position(TraceFormat.HEADER_SIZE);
+    }
+
+    public synchronized void record(Request request) {
+        if (closed) {
+            return;
+        }
+        long time = request.getTimestamp();
+        if (baseTime < 0) {
+            baseTime = time;
+            lastTime = time;
+        }
+        long delta = time - lastTime;
+        if (delta > Integer.MAX_VALUE || delta < Integer.MIN_VALUE) {
+            throw new IllegalArgumentException("Слишком большой разрыв во времени трассы: " + delta + " мс");
+        }
+        lastTime = time;
+
+        if (buffer.remaining() < TraceFormat.RECORD_SIZE) {
+            flushBuffer();
+        }
+        buffer.putInt((int) delta);
+        buffer.putShort((short) request.getCallFloor());
+        buffer.putShort((short) request.getTargetFloor());
+        buffer.put((byte) request.getDirection().ordinal());
+        count++;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    private void flushBuffer() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать трассу", e);
+        }
+        buffer.clear();
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(TraceFormat.HEADER_SIZE);
+        header.putInt(TraceFormat.MAGIC_OFFSET, TraceFormat.MAGIC);
+        header.putShort(TraceFormat.VERSION_OFFSET, TraceFormat.VERSION);
+        header.putShort(TraceFormat.RECORD_SIZE_OFFSET, (short) TraceFormat.RECORD_SIZE);
+        header.putInt(TraceFormat.FLOORS_OFFSET, totalFloors);
+        header.putLong(TraceFormat.BASE_TIME_OFFSET, Math.max(0, baseTime));
+        header.putLong(TraceFormat.COUNT_OFFSET, count);
+        channel.write(header, 0);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flushBuffer();
+            writeHeader();
+        } finally {
+            channel.close();
+        }
+    }
+}
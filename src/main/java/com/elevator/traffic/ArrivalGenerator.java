@@ -0,0 +1,16 @@
+package com.elevator.traffic;
+
+import com.elevator.request.Request;
+import java.util.Random;
+
+// источник пассажиров для Simulation: когда придёт следующий и куда он едет.
+// timeOfDay - мс от полуночи, по нему генератор выбирает интенсивность и профиль потока.
+// Случайность только из переданного random - с одним seed поток воспроизводим
+public interface ArrivalGenerator {
+
+    // через сколько мс придёт следующий пассажир (дробные - для тысяч пассажиров в минуту)
+    double nextDelay(long timeOfDay, Random random);
+
+    // пассажир, появившийся в момент timestamp
+    Request nextRequest(long timestamp, long timeOfDay, int totalFloors, Random random);
+}
@@ -0,0 +1,38 @@
+package com.elevator.traffic;
+
+import com.elevator.request.Request;
+import java.util.Random;
+
+// всплески поверх любого потока: каждые periodMillis на burstMillis интенсивность растёт в factor раз
+// (конец конференции, приезд автобуса, пожарная тревога)
+public class BurstTraffic implements ArrivalGenerator {
+    private final ArrivalGenerator base;
+    private final double factor;
+    private final long burstMillis;
+    private final long periodMillis;
+
+    public BurstTraffic(ArrivalGenerator base, double factor, long burstMillis, long periodMillis) {
+        if (factor < 1 || burstMillis <= 0 || periodMillis < burstMillis) {
+            throw new IllegalArgumentException("Неверные параметры всплеска");
+        }
+        this.base = base;
+        this.factor = factor;
+        this.burstMillis = burstMillis;
+        this.periodMillis = periodMillis;
+    }
+
+    @Override
+    public double nextDelay(long timeOfDay, Random random) {
+        double delay = base.nextDelay(timeOfDay, random);
+        return inBurst(timeOfDay) ? delay / factor : delay;
+    }
+
+    @Override
+    public Request nextRequest(long timestamp, long timeOfDay, int totalFloors, Random random) {
+        return base.nextRequest(timestamp, timeOfDay, totalFloors, random);
+    }
+
+    private boolean inBurst(long timeOfDay) {
+        return Math.floorMod(timeOfDay, periodMillis) < burstMillis;
+    }
+}
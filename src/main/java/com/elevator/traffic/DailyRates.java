@@ -0,0 +1,78 @@
+package com.elevator.traffic;
+
+import java.util.Arrays;
+
+// интенсивность потока по часам суток: пассажиров в минуту, час 0-23
+public class DailyRates {
+    public static final long HOUR = 3_600_000L;
+    public static final long DAY = 24 * HOUR;
+
+    private final double[] perMinute;
+
+    public DailyRates(double[] perMinute) {
+        if (perMinute.length != 24) {
+            throw new IllegalArgumentException("Нужно 24 значения, по одному на час: " + perMinute.length);
+        }
+        boolean any = false;
+        for (double rate : perMinute) {
+            if (rate < 0) {
+                throw new IllegalArgumentException("Интенсивность не может быть отрицательной: " + rate);
+            }
+            any |= rate > 0;
+        }
+        if (!any) {
+            throw new IllegalArgumentException("Хотя бы в один час поток должен быть ненулевым");
+        }
+        this.perMinute = perMinute.clone();
+    }
+
+    public static DailyRates constant(double perMinute) {
+        double[] rates = new double[24];
+        Arrays.fill(rates, perMinute);
+        return new DailyRates(rates);
+    }
+
+    // офис: утренний и вечерний пик, обед, почти пусто ночью
+    public static DailyRates office() {
+        return new DailyRates(new double[]{
+                1, 1, 1, 1, 1, 2, 5,            // 0-6
+                60, 300, 200, 60, 60,           // 7-11
+                150, 150,                       // 12-13 обед
+                60, 60, 60,                     // 14-16
+                250, 150,                       // 17-18
+                20, 10, 5, 2, 1});              // 19-23
+    }
+
+    // те же часы с переопределениями "час=в минуту,...", например "8=1200,9=900"
+    public DailyRates with(String overrides) {
+        double[] rates = perMinute.clone();
+        for (String item : overrides.split(",")) {
+            String[] parts = item.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Ожидается час=интенсивность: " + item);
+            }
+            int hour;
+            double rate;
+            try {
+                hour = Integer.parseInt(parts[0].trim());
+                rate = Double.parseDouble(parts[1].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Неверное значение " + item, e);
+            }
+            if (hour < 0 || hour > 23) {
+                throw new IllegalArgumentException("Час должен быть от 0 до 23: " + hour);
+            }
+            rates[hour] = rate;
+        }
+        return new DailyRates(rates);
+    }
+
+    // пассажиров в минуту в момент timeOfDay (мс от полуночи)
+    public double perMinuteAt(long timeOfDay) {
+        return perMinute[hourOf(timeOfDay)];
+    }
+
+    public static int hourOf(long timeOfDay) {
+        return (int) (Math.floorMod(timeOfDay, DAY) / HOUR);
+    }
+}
@@ -0,0 +1,23 @@
+package com.elevator.traffic;
+
+import com.elevator.request.Request;
+import java.util.Random;
+
+// прежнее поведение Simulation: один пассажир раз в 3-9 с (период выбирается один раз),
+// этажи равномерно случайные
+public class FixedRateTraffic implements ArrivalGenerator {
+    private long periodMillis = -1;
+
+    @Override
+    public double nextDelay(long timeOfDay, Random random) {
+        if (periodMillis < 0) {
+            periodMillis = (3 + random.nextInt(7)) * 1000L;
+        }
+        return periodMillis;
+    }
+
+    @Override
+    public Request nextRequest(long timestamp, long timeOfDay, int totalFloors, Random random) {
+        return TrafficPattern.UNIFORM.create(timestamp, totalFloors, random);
+    }
+}
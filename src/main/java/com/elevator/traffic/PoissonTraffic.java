@@ -0,0 +1,59 @@
+package com.elevator.traffic;
+
+import com.elevator.request.Request;
+import java.util.Random;
+import java.util.function.LongFunction;
+
+// пуассоновский поток: интервалы между пассажирами экспоненциальные с интенсивностью
+// часа суток; профиль поездок (TrafficPattern) тоже может зависеть от времени
+public class PoissonTraffic implements ArrivalGenerator {
+    private final DailyRates rates;
+    private final LongFunction<TrafficPattern> patternAt;
+
+    public PoissonTraffic(DailyRates rates, TrafficPattern pattern) {
+        this(rates, timeOfDay -> pattern);
+    }
+
+    public PoissonTraffic(DailyRates rates, LongFunction<TrafficPattern> patternAt) {
+        this.rates = rates;
+        this.patternAt = patternAt;
+    }
+
+    // офисный день: утром подъём, в обед в обе стороны, вечером спуск, в остальное время между этажами
+    public static PoissonTraffic officeDay(DailyRates rates) {
+        return new PoissonTraffic(rates, timeOfDay -> {
+            int hour = DailyRates.hourOf(timeOfDay);
+            if (hour >= 7 && hour < 10) {
+                return TrafficPattern.UP_PEAK;
+            } else if (hour >= 12 && hour < 14) {
+                return TrafficPattern.LUNCH;
+            } else if (hour >= 17 && hour < 19) {
+                return TrafficPattern.DOWN_PEAK;
+            }
+            return TrafficPattern.INTER_FLOOR;
+        });
+    }
+
+    @Override
+    public double nextDelay(long timeOfDay, Random random) {
+        // интенсивность постоянна внутри часа; если интервал перешёл границу часа,
+        // розыгрыш повторяется с границы (поток без памяти) с интенсивностью нового часа
+        double time = timeOfDay;
+        while (true) {
+            double perMillisecond = rates.perMinuteAt((long) time) / 60_000.0;
+            double hourEnd = (Math.floor(time / DailyRates.HOUR) + 1) * DailyRates.HOUR;
+            if (perMillisecond > 0) {
+                double delay = -Math.log(1 - random.nextDouble()) / perMillisecond;
+                if (time + delay < hourEnd) {
+                    return time + delay - timeOfDay;
+                }
+            }
+            time = hourEnd;
+        }
+    }
+
+    @Override
+    public Request nextRequest(long timestamp, long timeOfDay, int totalFloors, Random random) {
+        return patternAt.apply(timeOfDay).create(timestamp, totalFloors, random);
+    }
+}
@@ -0,0 +1,25 @@
+package com.elevator.traffic;
+
+// готовые профили потока по имени (для командной строки):
+//   random      - прежний равномерный поток раз в 3-9 с
+//   up-peak, down-peak, lunch, inter-floor - пуассоновский поток с одним профилем поездок
+//   office      - офисный день: профиль меняется по часам
+//   burst       - офисный день со всплесками x10 на минуту каждые 15 минут
+// rates - интенсивность по часам (для random не используется)
+public final class Traffic {
+    private Traffic() {
+    }
+
+    public static ArrivalGenerator named(String name, DailyRates rates) {
+        return switch (name) {
+            case "random" -> new FixedRateTraffic();
+            case "up-peak" -> new PoissonTraffic(rates, TrafficPattern.UP_PEAK);
+            case "down-peak" -> new PoissonTraffic(rates, TrafficPattern.DOWN_PEAK);
+            case "lunch" -> new PoissonTraffic(rates, TrafficPattern.LUNCH);
+            case "inter-floor" -> new PoissonTraffic(rates, TrafficPattern.INTER_FLOOR);
+            case "office" -> PoissonTraffic.officeDay(rates);
+            case "burst" -> new BurstTraffic(PoissonTraffic.officeDay(rates), 10, 60_000, 15 * 60_000);
+            default -> throw new IllegalArgumentException("Неизвестный профиль потока: " + name);
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.elevator.traffic;
+
+import com.elevator.elevator.Direction;
+import com.elevator.request.Request;
+import java.util.Random;
+
+// откуда и куда едут пассажиры; вестибюль - этаж 0.
+// fromLobby - доля поездок из вестибюля наверх, toLobby - доля поездок в вестибюль,
+// остальные - между случайными этажами
+public enum TrafficPattern {
+    UP_PEAK(0.85, 0.05),     // утро: все приходят и едут на свои этажи
+    DOWN_PEAK(0.05, 0.85),   // вечер: все уходят
+    LUNCH(0.45, 0.45),       // обед: в обе стороны через вестибюль
+    INTER_FLOOR(0.1, 0.1),   // день: совещания между этажами
+    UNIFORM(0, 0);           // равномерно случайные этажи
+
+    private final double fromLobby;
+    private final double toLobby;
+
+    TrafficPattern(double fromLobby, double toLobby) {
+        this.fromLobby = fromLobby;
+        this.toLobby = toLobby;
+    }
+
+    public Request create(long timestamp, int totalFloors, Random random) {
+        double kind = random.nextDouble();
+        int callFloor;
+        int targetFloor;
+        if (kind < fromLobby) {
+            callFloor = 0;
+            targetFloor = 1 + random.nextInt(totalFloors - 1);
+        } else if (kind < fromLobby + toLobby) {
+            callFloor = 1 + random.nextInt(totalFloors - 1);
+            targetFloor = 0;
+        } else {
+            callFloor = random.nextInt(totalFloors);
+            do {
+                targetFloor = random.nextInt(totalFloors);
+            } while (targetFloor == callFloor);
+        }
+        Direction direction = (targetFloor > callFloor) ? Direction.UP : Direction.DOWN;
+        return new Request(callFloor, direction, targetFloor, timestamp);
+    }
+}
@@ -0,0 +1,345 @@
+package com.elevator.util;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Асинхронный логгер с уровнями.
+// Вызывающий поток только проверяет уровень и кладёт шаблон с аргументами в слот
+// заранее выделенного кольцевого буфера; форматирование ("{}" -> аргумент) и вывод
+// в консоль делает отдельный поток-писатель. Выключенный уровень стоит одно сравнение,
+// числовые аргументы передаются без упаковки. Если буфер полон, сообщение
+// отбрасывается (с подсчётом) - логирование никогда не тормозит лифты.
+// Без сообщений писатель спит всё дольше (от MIN до MAX_IDLE_PARK_NANOS), flush() его будит.
+// Уровень: -Delevator.log.level=DEBUG|INFO|WARN|ERROR|OFF (по умолчанию INFO)
+public final class Logger {
+
+    public enum Level {
+        TRACE,
+        DEBUG,
+        INFO,
+        WARN,
+        ERROR,
+        OFF
+    }
+
+    private static final int BUFFER_SIZE = 1 << 14; // степень двойки
+    private static final int MASK = BUFFER_SIZE - 1;
+    private static final long MIN_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(64);
+
+    private static final Slot[] RING = new Slot[BUFFER_SIZE];
+    private static final AtomicLong claimed = new AtomicLong(); // следующий номер для записи
+    private static volatile long consumed;                      // следующий номер для писателя
+    private static final LongAdder dropped = new LongAdder();      // с последнего предупреждения
+    private static final LongAdder droppedTotal = new LongAdder(); // за всё время
+
+    private static volatile Level threshold = parseLevel(System.getProperty("elevator.log.level"), Level.INFO);
+    private static final Thread writer;
+
+    static {
+        for (int i = 0; i < BUFFER_SIZE; i++) {
+            RING[i] = new Slot();
+        }
+        writer = new Thread(Logger::writeLoop, "logger-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            flush(1000);
+            reportDropped();
+        }, "logger-flush"));
+    }
+
+    private final String name;
+
+    private Logger(String name) {
+        this.name = name;
+    }
+
+    public static Logger getLogger(Class<?> owner) {
+        return new Logger(owner.getSimpleName());
+    }
+
+    public static void setLevel(Level level) {
+        threshold = level;
+    }
+
+    public static Level getLevel() {
+        return threshold;
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold.ordinal() && level != Level.OFF;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    // --- DEBUG ---
+
+    public void debug(String message) {
+        if (isEnabled(Level.DEBUG)) enqueue(Level.DEBUG, message, 0, null, null, null, 0, 0, 0, null, null);
+    }
+
+    public void debug(String pattern, long a) {
+        if (isEnabled(Level.DEBUG)) enqueue(Level.DEBUG, pattern, -1, null, null, null, a, 0, 0, null, null);
+    }
+
+    public void debug(String pattern, long a, long b) {
+        if (isEnabled(Level.DEBUG)) enqueue(Level.DEBUG, pattern, -2, null, null, null, a, b, 0, null, null);
+    }
+
+    public void debug(String pattern, long a, long b, long c) {
+        if (isEnabled(Level.DEBUG)) enqueue(Level.DEBUG, pattern, -3, null, null, null, a, b, c, null, null);
+    }
+
+    public void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) enqueue(Level.DEBUG, null, 0, null, null, null, 0, 0, 0, message, null);
+    }
+
+    // --- INFO ---
+
+    public void info(String message) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, message, 0, null, null, null, 0, 0, 0, null, null);
+    }
+
+    public void info(String pattern, long a) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, pattern, -1, null, null, null, a, 0, 0, null, null);
+    }
+
+    public void info(String pattern, long a, long b) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, pattern, -2, null, null, null, a, b, 0, null, null);
+    }
+
+    public void info(String pattern, long a, long b, long c) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, pattern, -3, null, null, null, a, b, c, null, null);
+    }
+
+    public void info(String pattern, Object a) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, pattern, 1, a, null, null, 0, 0, 0, null, null);
+    }
+
+    public void info(String pattern, Object a, Object b) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, pattern, 2, a, b, null, 0, 0, 0, null, null);
+    }
+
+    public void info(String pattern, Object a, Object b, Object c) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, pattern, 3, a, b, c, 0, 0, 0, null, null);
+    }
+
+    public void info(Supplier<String> message) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, null, 0, null, null, null, 0, 0, 0, message, null);
+    }
+
+    // --- WARN / ERROR ---
+
+    public void warn(String message) {
+        if (isEnabled(Level.WARN)) enqueue(Level.WARN, message, 0, null, null, null, 0, 0, 0, null, null);
+    }
+
+    public void warn(String pattern, long a) {
+        if (isEnabled(Level.WARN)) enqueue(Level.WARN, pattern, -1, null, null, null, a, 0, 0, null, null);
+    }
+
+    public void warn(String pattern, long a, long b) {
+        if (isEnabled(Level.WARN)) enqueue(Level.WARN, pattern, -2, null, null, null, a, b, 0, null, null);
+    }
+
+    public void warn(String pattern, long a, long b, long c) {
+        if (isEnabled(Level.WARN)) enqueue(Level.WARN, pattern, -3, null, null, null, a, b, c, null, null);
+    }
+
+    public void warn(String pattern, Object a) {
+        if (isEnabled(Level.WARN)) enqueue(Level.WARN, pattern, 1, a, null, null, 0, 0, 0, null, null);
+    }
+
+    public void warn(String pattern, Object a, Object b) {
+        if (isEnabled(Level.WARN)) enqueue(Level.WARN, pattern, 2, a, b, null, 0, 0, 0, null, null);
+    }
+
+    public void warn(String pattern, Object a, Object b, Object c) {
+        if (isEnabled(Level.WARN)) enqueue(Level.WARN, pattern, 3, a, b, c, 0, 0, 0, null, null);
+    }
+
+    public void error(String message) {
+        if (isEnabled(Level.ERROR)) enqueue(Level.ERROR, message, 0, null, null, null, 0, 0, 0, null, null);
+    }
+
+    public void error(String pattern, long a) {
+        if (isEnabled(Level.ERROR)) enqueue(Level.ERROR, pattern, -1, null, null, null, a, 0, 0, null, null);
+    }
+
+    public void error(String pattern, long a, long b) {
+        if (isEnabled(Level.ERROR)) enqueue(Level.ERROR, pattern, -2, null, null, null, a, b, 0, null, null);
+    }
+
+    public void error(String pattern, long a, long b, long c) {
+        if (isEnabled(Level.ERROR)) enqueue(Level.ERROR, pattern, -3, null, null, null, a, b, c, null, null);
+    }
+
+    public void error(String pattern, Object a) {
+        if (isEnabled(Level.ERROR)) enqueue(Level.ERROR, pattern, 1, a, null, null, 0, 0, 0, null, null);
+    }
+
+    public void error(String pattern, Object a, Object b) {
+        if (isEnabled(Level.ERROR)) enqueue(Level.ERROR, pattern, 2, a, b, null, 0, 0, 0, null, null);
+    }
+
+    public void error(String pattern, Object a, Object b, Object c) {
+        if (isEnabled(Level.ERROR)) enqueue(Level.ERROR, pattern, 3, a, b, c, 0, 0, 0, null, null);
+    }
+
+    public void error(String message, Throwable error) {
+        if (isEnabled(Level.ERROR)) enqueue(Level.ERROR, message, 0, null, null, null, 0, 0, 0, null, error);
+    }
+
+    // ждёт, пока писатель выведет всё, что уже поставлено в очередь (не дольше timeoutMillis)
+    public static void flush(long timeoutMillis) {
+        long target = claimed.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        LockSupport.unpark(writer); // не ждём, пока писатель сам проснётся
+        while (consumed < target && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    public static void flush() {
+        flush(5000);
+    }
+
+    // сколько сообщений отброшено из-за переполнения буфера за всё время - для итога прогона
+    public static long getDropped() {
+        return droppedTotal.sum();
+    }
+
+    // слот кольцевого буфера: sequence публикуется последним (volatile)
+    private static final class Slot {
+        volatile long sequence = -1;
+        Level level;
+        String logger;
+        String pattern;
+        int argCount; // >0 - объекты, <0 - числа, 0 - без аргументов
+        Object o0, o1, o2;
+        long l0, l1, l2;
+        Supplier<String> supplier;
+        Throwable error;
+    }
+
+    private void enqueue(Level level, String pattern, int argCount, Object o0, Object o1, Object o2,
+                         long l0, long l1, long l2, Supplier<String> supplier, Throwable error) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= BUFFER_SIZE) {
+                dropped.increment();
+                droppedTotal.increment();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        Slot slot = RING[(int) (sequence & MASK)];
+        slot.level = level;
+        slot.logger = name;
+        slot.pattern = pattern;
+        slot.argCount = argCount;
+        slot.o0 = o0;
+        slot.o1 = o1;
+        slot.o2 = o2;
+        slot.l0 = l0;
+        slot.l1 = l1;
+        slot.l2 = l2;
+        slot.supplier = supplier;
+        slot.error = error;
+        slot.sequence = sequence;
+    }
+
+    // поток-писатель: форматирует и выводит сообщения по порядку; вывод сбрасывается
+    // и о пропущенных сообщениях сообщается, только когда что-то было выведено
+    private static void writeLoop() {
+        StringBuilder line = new StringBuilder(256);
+        long idlePark = MIN_IDLE_PARK_NANOS;
+        boolean written = false;
+        while (true) {
+            long next = consumed;
+            Slot slot = RING[(int) (next & MASK)];
+            if (slot.sequence != next) {
+                if (written) {
+                    System.out.flush();
+                    reportDropped();
+                    written = false;
+                }
+                LockSupport.parkNanos(idlePark);
+                idlePark = Math.min(idlePark * 2, MAX_IDLE_PARK_NANOS);
+                continue;
+            }
+            idlePark = MIN_IDLE_PARK_NANOS;
+            written = true;
+
+            line.setLength(0);
+            try {
+                format(slot, line);
+            } catch (RuntimeException e) {
+                line.append("Ошибка форматирования лога: ").append(e);
+            }
+            PrintStream out = (slot.level.ordinal() >= Level.WARN.ordinal()) ? System.err : System.out;
+            out.println(line);
+            if (slot.error != null) {
+                slot.error.printStackTrace(out);
+            }
+
+            // отпускаем ссылки, чтобы буфер не удерживал объекты
+            slot.o0 = slot.o1 = slot.o2 = null;
+            slot.supplier = null;
+            slot.error = null;
+            consumed = next + 1;
+        }
+    }
+
+    private static void format(Slot slot, StringBuilder line) {
+        if (slot.level.ordinal() >= Level.WARN.ordinal()) {
+            line.append('[').append(slot.level).append("] ").append(slot.logger).append(": ");
+        }
+        if (slot.supplier != null) {
+            line.append(slot.supplier.get());
+            return;
+        }
+        String pattern = slot.pattern;
+        int count = Math.abs(slot.argCount);
+        int argument = 0;
+        int from = 0;
+        int placeholder;
+        while (argument < count && (placeholder = pattern.indexOf("{}", from)) >= 0) {
+            line.append(pattern, from, placeholder);
+            if (slot.argCount > 0) {
+                line.append(argument == 0 ? slot.o0 : argument == 1 ? slot.o1 : slot.o2);
+            } else {
+                line.append(argument == 0 ? slot.l0 : argument == 1 ? slot.l1 : slot.l2);
+            }
+            argument++;
+            from = placeholder + 2;
+        }
+        line.append(pattern, from, pattern.length());
+    }
+
+    private static void reportDropped() {
+        long count = dropped.sumThenReset();
+        if (count > 0) {
+            System.err.println("[WARN] Logger: буфер переполнен, пропущено сообщений: " + count);
+        }
+    }
+
+    private static Level parseLevel(String value, Level defaultLevel) {
+        if (value == null) {
+            return defaultLevel;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return defaultLevel;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.elevator;
+
+import com.elevator.dispatcher.BankRouterCheck;
+import com.elevator.dispatcher.BatchAssignmentCheck;
+import com.elevator.dispatcher.CallRebalancerCheck;
+import com.elevator.elevator.FloorSetCheck;
+import com.elevator.elevator.PendingCallsCheck;
+import com.elevator.event.RingEventPumpCheck;
+import com.elevator.trace.TraceCheck;
+import com.elevator.util.Logger;
+
+// проверки поведения без тестового фреймворка, как и бенчмарки - обычный main:
+//   java ... com.elevator.ElevatorSystemTest
+// печатает проваленные проверки и итог; если хоть одна провалена - код выхода 1.
+// Сами проверки - классы *Check рядом с проверяемым кодом (в тех же пакетах, видят package-private)
+public class ElevatorSystemTest {
+    private static int checks;
+    private static int failures;
+
+    public static void main(String[] args) {
+        Logger.setLevel(Logger.Level.OFF);
+        run("FloorSet", FloorSetCheck::runAll);
+        run("PendingCalls", PendingCallsCheck::runAll);
+        run("BatchAssignment", BatchAssignmentCheck::runAll);
+        run("CallRebalancer", CallRebalancerCheck::runAll);
+        run("RingEventPump", RingEventPumpCheck::runAll);
+        run("Trace", TraceCheck::runAll);
+        run("BankRouter", BankRouterCheck::runAll);
+        System.out.printf("проверок: %d, провалено: %d%n", checks, failures);
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // исключение в наборе - тоже провал, остальные наборы выполняются
+    private static void run(String suite, Runnable checks) {
+        try {
+            checks.run();
+        } catch (RuntimeException | AssertionError e) {
+            fail(suite + ": исключение " + e);
+            e.printStackTrace(System.out);
+        }
+    }
+
+    public static synchronized void check(boolean condition, String what) {
+        checks++;
+        if (!condition) {
+            fail(what);
+        }
+    }
+
+    public static void checkEqual(long expected, long actual, String what) {
+        check(expected == actual, what + ": ожидалось " + expected + ", получено " + actual);
+    }
+
+    private static synchronized void fail(String what) {
+        failures++;
+        System.out.println("FAIL " + what);
+    }
+}
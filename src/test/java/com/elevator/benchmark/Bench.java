@@ -0,0 +1,149 @@
+package com.elevator.benchmark;
+
+import com.elevator.util.Logger;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Минимальный харнесс микробенчмарков в духе JMH: прогрев, несколько итераций замера,
+// N потоков-нагрузчиков, пропускная способность и перцентили задержки одной операции.
+// Параметры через системные свойства:
+//   -Dbench.warmup=2 -Dbench.iterations=3 -Dbench.time=500 (мс на итерацию)
+public final class Bench {
+    private static final int WARMUP = Integer.getInteger("bench.warmup", 2);
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 3);
+    private static final long ITERATION_MILLIS = Long.getLong("bench.time", 500);
+    private static final int MAX_SAMPLES = 1 << 18; // задержек на поток за итерацию
+
+    // чтобы JIT не выбросил результат операций
+    private static volatile long sink;
+
+    // одна операция бенчмарка; результат "съедается" харнессом
+    public interface Operation {
+        long invoke(int threadIndex);
+    }
+
+    private Bench() {
+    }
+
+    // setup вызывается перед каждой итерацией и возвращает операцию над свежим состоянием
+    public static void run(String name, int threads, Supplier<Operation> setup) {
+        long[] merged = new long[0];
+        long totalOps = 0;
+        long totalNanos = 0;
+
+        // логи лифтов и диспетчера на время замера выключены
+        Logger.Level level = Logger.getLevel();
+        Logger.setLevel(Logger.Level.OFF);
+        try {
+            for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+                IterationResult result = runIteration(threads, setup.get());
+                if (i >= WARMUP) {
+                    totalOps += result.operations;
+                    totalNanos += result.elapsedNanos;
+                    merged = concat(merged, result.latencies);
+                }
+            }
+        } finally {
+            Logger.setLevel(level);
+        }
+
+        Arrays.sort(merged);
+        double opsPerSecond = totalOps * 1e9 / Math.max(1, totalNanos);
+        System.out.printf("%-52s threads=%-3d %14.0f ops/s   p50=%7d ns  p95=%7d ns  p99=%8d ns%n",
+                name, threads, opsPerSecond,
+                percentile(merged, 0.50), percentile(merged, 0.95), percentile(merged, 0.99));
+    }
+
+    private static IterationResult runIteration(int threads, Operation operation) {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        long[] operations = new long[threads];
+        long[][] samples = new long[threads][];
+        int[] sampleCounts = new int[threads];
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ITERATION_MILLIS);
+
+        for (int t = 0; t < threads; t++) {
+            int threadIndex = t;
+            workers[t] = new Thread(() -> {
+                long[] latencies = new long[MAX_SAMPLES];
+                long ops = 0;
+                long consumed = 0;
+                int count = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long now = System.nanoTime();
+                while (now < deadline) {
+                    consumed += operation.invoke(threadIndex);
+                    long after = System.nanoTime();
+                    if (count < MAX_SAMPLES) {
+                        latencies[count++] = after - now;
+                    }
+                    now = after;
+                    ops++;
+                }
+                sink += consumed;
+                operations[threadIndex] = ops;
+                samples[threadIndex] = latencies;
+                sampleCounts[threadIndex] = count;
+            }, "bench-" + t);
+            workers[t].start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        long total = 0;
+        int sampleTotal = 0;
+        for (int t = 0; t < threads; t++) {
+            total += operations[t];
+            sampleTotal += sampleCounts[t];
+        }
+        long[] latencies = new long[sampleTotal];
+        int offset = 0;
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(samples[t], 0, latencies, offset, sampleCounts[t]);
+            offset += sampleCounts[t];
+        }
+        return new IterationResult(total, elapsed, latencies);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)));
+        return sorted[index];
+    }
+
+    private static long[] concat(long[] a, long[] b) {
+        long[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private static class IterationResult {
+        final long operations;
+        final long elapsedNanos;
+        final long[] latencies;
+
+        IterationResult(long operations, long elapsedNanos, long[] latencies) {
+            this.operations = operations;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.elevator.benchmark;
+
+import com.elevator.dispatcher.BatchAssignmentBenchmark;
+import com.elevator.dispatcher.DispatcherBenchmark;
+import com.elevator.elevator.ElevatorContentionBenchmark;
+import com.elevator.elevator.ElevatorRouteBenchmark;
+import com.elevator.elevator.StateAllocationBenchmark;
+
+// запуск всех бенчмарков: java ... com.elevator.benchmark.BenchmarkMain [dispatcher|batch|route|contention|alloc] [потоков]
+// результаты - базовая линия, с которой сравниваются изменения диспетчера.
+// Код выхода 1, если проверка в составе наборов (dispatcher, alloc) дала FAIL
+public class BenchmarkMain {
+    public static void main(String[] args) {
+        String suite = args.length > 0 ? args[0] : "all";
+        int contendedThreads = args.length > 1
+                ? Integer.parseInt(args[1])
+                : Math.max(4, Runtime.getRuntime().availableProcessors());
+        boolean ok = true;
+
+        if (suite.equals("all") || suite.equals("dispatcher")) {
+            ok &= DispatcherBenchmark.runAll(contendedThreads);
+        }
+        if (suite.equals("all") || suite.equals("batch")) {
+            BatchAssignmentBenchmark.runAll();
+        }
+        if (suite.equals("all") || suite.equals("route")) {
+            ElevatorRouteBenchmark.runAll();
+        }
+        if (suite.equals("all") || suite.equals("contention")) {
+            ElevatorContentionBenchmark.runAll(contendedThreads);
+        }
+        if (suite.equals("all") || suite.equals("alloc")) {
+            ok &= StateAllocationBenchmark.runAll();
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.elevator.core;
+
+import com.elevator.config.BuildingConfig;
+import com.elevator.elevator.Direction;
+import com.elevator.metrics.RunStatistics;
+import com.elevator.request.Request;
+import com.elevator.util.Logger;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+// Стоимость режимов исполнения на большом числе лифтов (по умолчанию 10 000):
+// память (heap и RSS процесса), число потоков, процессорное время и переключения контекста.
+// Каждый режим лучше мерить в отдельной JVM:
+//   java ... com.elevator.core.ExecutionModeBenchmark [режим|all] [лифтов] [секунд]
+public class ExecutionModeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "all";
+        int elevators = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        for (ExecutionMode executionMode : ExecutionMode.values()) {
+            if (mode.equals("all") || mode.equals(executionMode.name())) {
+                run(executionMode, elevators, seconds);
+            }
+        }
+    }
+
+    private static void run(ExecutionMode mode, int elevatorCount, int seconds) throws Exception {
+        Logger.Level level = Logger.getLevel();
+        Logger.setLevel(Logger.Level.OFF);
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        long rssBefore = processStatus("VmRSS:");
+        long switchesBefore = contextSwitches();
+        long cpuBefore = processCpuNanos();
+
+        RunStatistics statistics = new RunStatistics();
+        Building building = new Building(BuildingConfig.defaults().withElevatorsCount(elevatorCount), statistics, mode);
+        long started = System.nanoTime();
+        building.startElevators();
+        long startupMillis = (System.nanoTime() - started) / 1_000_000;
+
+        // ровный поток пассажиров: примерно один на 10 лифтов в секунду
+        Random random = new Random(1);
+        int perTick = Math.max(1, elevatorCount / 100);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < perTick; i++) {
+                building.getRouter().handleRequest(randomRequest(random));
+            }
+            Thread.sleep(100);
+        }
+
+        System.gc();
+        long heapUsed = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+        long rss = processStatus("VmRSS:") - rssBefore;
+        long liveTasks = taskCount();
+        long switches = contextSwitches() - switchesBefore;
+        long cpuMillis = (processCpuNanos() - cpuBefore) / 1_000_000;
+
+        building.stopElevators();
+        Logger.setLevel(level);
+
+        System.out.printf("%-17s elevators=%d startup=%d ms heap=%d MB rss=%d MB OS threads=%d " +
+                        "cpu=%d ms context switches=%d delivered=%d%n",
+                mode, elevatorCount, startupMillis, heapUsed >> 20, rss >> 10, liveTasks,
+                cpuMillis, switches, statistics.getAlighted());
+    }
+
+    private static Request randomRequest(Random random) {
+        int callFloor = random.nextInt(BuildingConfig.DEFAULT_TOTAL_FLOORS);
+        int targetFloor;
+        do {
+            targetFloor = random.nextInt(BuildingConfig.DEFAULT_TOTAL_FLOORS);
+        } while (targetFloor == callFloor);
+        Direction direction = (targetFloor > callFloor) ? Direction.UP : Direction.DOWN;
+        return new Request(callFloor, direction, targetFloor);
+    }
+
+    private static long processCpuNanos() {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean sunOs) {
+            return sunOs.getProcessCpuTime();
+        }
+        return 0;
+    }
+
+    // значение из /proc/self/status в кБ (Linux), иначе 0
+    private static long processStatus(String key) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith(key)) {
+                    return Long.parseLong(line.substring(key.length()).replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+        return 0;
+    }
+
+    // сумма добровольных и вынужденных переключений контекста по всем живым потокам ОС
+    private static long contextSwitches() {
+        long total = 0;
+        try (DirectoryStream<Path> tasks = Files.newDirectoryStream(Path.of("/proc/self/task"))) {
+            for (Path task : tasks) {
+                try {
+                    for (String line : Files.readAllLines(task.resolve("status"))) {
+                        if (line.startsWith("voluntary_ctxt_switches:") || line.startsWith("nonvoluntary_ctxt_switches:")) {
+                            total += Long.parseLong(line.substring(line.indexOf(':') + 1).trim());
+                        }
+                    }
+                } catch (IOException e) {
+                    // поток завершился между листингом и чтением
+                }
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+        return total;
+    }
+
+    private static long taskCount() {
+        try (DirectoryStream<Path> tasks = Files.newDirectoryStream(Path.of("/proc/self/task"))) {
+            long count = 0;
+            for (Path ignored : tasks) {
+                count++;
+            }
+            return count;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.elevator.core;
+
+import com.elevator.config.BuildingConfig;
+import com.elevator.metrics.RunStatistics;
+import com.elevator.traffic.DailyRates;
+import com.elevator.traffic.PoissonTraffic;
+import com.elevator.traffic.TrafficPattern;
+import com.elevator.util.Logger;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+// Память под пассажиров на длинном прогоне в виртуальном времени (по умолчанию 10 млн запросов):
+// поток с перегрузкой, поэтому к концу на этажах копятся сотни тысяч ожидающих.
+// Печатает живой heap после прогона, выделено байт на запрос, число и суммарное время пауз GC.
+//   java -Xlog:gc ... com.elevator.core.RequestFootprintBenchmark [запросов] [лифтов] [в минуту]
+public class RequestFootprintBenchmark {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        long requests = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000;
+        int elevators = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        double perMinute = args.length > 2 ? Double.parseDouble(args[2]) : 100_000;
+        Logger.setLevel(Logger.Level.OFF);
+
+        BuildingConfig config = BuildingConfig.defaults()
+                .withArgs(new String[]{"floors=60", "elevators=" + elevators});
+        RunStatistics statistics = new RunStatistics();
+        Building building = new Building(config, statistics);
+        Simulation simulation = new Simulation(building, new SimulationClock(), new Random(1));
+        simulation.setTraffic(new PoissonTraffic(DailyRates.constant(perMinute), TrafficPattern.INTER_FLOOR));
+        long duration = (long) (requests / perMinute * 60_000);
+
+        System.gc();
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+
+        long generated = simulation.runVirtual(duration);
+
+        long elapsed = (System.nanoTime() - started) / 1_000_000;
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        long gcCount = gcCount() - gcCountBefore;
+        long gcMillis = gcMillis() - gcMillisBefore;
+        System.gc();
+        long live = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long waiting = statistics.getArrived() - statistics.getBoarded();
+
+        System.out.printf("requests=%d waiting=%d live heap=%d MB (%.1f bytes/waiting) allocated=%.1f bytes/request " +
+                        "gc=%d pauses %d ms, run %d ms%n",
+                generated, waiting, live >> 20, waiting > 0 ? (double) live / waiting : 0,
+                (double) allocated / Math.max(1, generated), gcCount, gcMillis, elapsed);
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,96 @@
+package com.elevator.core;
+
+import com.elevator.benchmark.Bench;
+import com.elevator.config.BuildingConfig;
+import com.elevator.elevator.Direction;
+import com.elevator.metrics.PassengerMetrics;
+import com.elevator.metrics.RunStatistics;
+import com.elevator.event.CompositeEventListener;
+import com.elevator.request.Request;
+import com.elevator.traffic.DailyRates;
+import com.elevator.traffic.Traffic;
+import com.elevator.util.Logger;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+// одно здание, одинаковое число лифтов - один общий банк против зон:
+//   flat  - все лифты на все этажи, один диспетчер
+//   zoned - три банка с первого этажа (нижняя, средняя, верхняя зона)
+//   sky   - нижние банки с первого этажа, верхняя зона - с sky lobby, до неё челноки
+// 1) прогон в виртуальном времени по профилям потока: сколько поездок завершено за час
+//    (выходы минус пересадки), ожидание и поездка участка, реальное время прогона;
+// 2) пропускная способность входа в диспетчеризацию (BankRouter.handleRequest) в N потоков.
+//   java ... com.elevator.core.ZonedBankBenchmark [пассажиров в минуту] [часов] [потоков]
+public class ZonedBankBenchmark {
+    private static final int FLOORS = 60;
+    private static final String[][] LAYOUTS = {
+            {"flat", "elevators=24"},
+            {"zoned", "banks=1/2-20:8,1/21-40:8,1/41-60:8"},
+            {"sky", "banks=1/2-20:6,1/21-30:6,30:4,30/31-60:8"},
+    };
+    private static final String[] PATTERNS = {"up-peak", "down-peak", "lunch", "inter-floor"};
+
+    public static void main(String[] args) {
+        double perMinute = args.length > 0 ? Double.parseDouble(args[0]) : 40;
+        long hours = args.length > 1 ? Long.parseLong(args[1]) : 2;
+        int threads = args.length > 2 ? Integer.parseInt(args[2])
+                : Math.max(4, Runtime.getRuntime().availableProcessors());
+        Logger.setLevel(Logger.Level.OFF);
+
+        for (String pattern : PATTERNS) {
+            for (String[] layout : LAYOUTS) {
+                simulate(layout[0], config(layout[1]), pattern, perMinute, hours);
+            }
+        }
+        for (String[] layout : LAYOUTS) {
+            BuildingConfig config = config(layout[1]);
+            Bench.run("router.handleRequest " + layout[0], threads, () -> handleRequest(config));
+        }
+    }
+
+    private static BuildingConfig config(String layout) {
+        return BuildingConfig.defaults().withArgs(new String[]{"floors=" + FLOORS, layout});
+    }
+
+    private static void simulate(String name, BuildingConfig config, String pattern, double perMinute, long hours) {
+        RunStatistics statistics = new RunStatistics();
+        SimulationClock clock = new SimulationClock();
+        PassengerMetrics metrics = new PassengerMetrics(config.getElevatorsCount(), clock);
+        Building building = new Building(config, new CompositeEventListener(statistics, metrics));
+        Simulation simulation = new Simulation(building, clock, new Random(1));
+        simulation.setTraffic(Traffic.named(pattern, DailyRates.constant(perMinute)));
+
+        long started = System.nanoTime();
+        simulation.runVirtual(hours * 3_600_000);
+        long elapsed = (System.nanoTime() - started) / 1_000_000;
+
+        long transfers = building.getRouter().getTransfers();
+        long journeys = statistics.getAlighted() - transfers;
+        System.out.printf("%-12s %-6s arrived=%6d journeys/h=%7.0f transfers=%5d  wait p50=%6d p95=%7d mean=%8.0f ms" +
+                        "  ride p95=%6d ms  run %d ms%n",
+                pattern, name, statistics.getArrived(), (double) journeys / hours, transfers,
+                metrics.getWaitTime().percentile(0.50), metrics.getWaitTime().percentile(0.95),
+                metrics.getWaitTime().getMean(), metrics.getRideTime().percentile(0.95), elapsed);
+    }
+
+    // лифты стоят, запросы копятся в их очередях - меряется только маршрутизация и назначение
+    private static Bench.Operation handleRequest(BuildingConfig config) {
+        Building building = new Building(config, null);
+        Request[] requests = new Request[4096];
+        Random random = new Random(7);
+        for (int i = 0; i < requests.length; i++) {
+            int callFloor = random.nextInt(FLOORS);
+            int targetFloor;
+            do {
+                targetFloor = random.nextInt(FLOORS);
+            } while (targetFloor == callFloor);
+            Direction direction = (targetFloor > callFloor) ? Direction.UP : Direction.DOWN;
+            requests[i] = new Request(callFloor, direction, targetFloor, 0);
+        }
+        return threadIndex -> {
+            Request request = requests[ThreadLocalRandom.current().nextInt(requests.length)];
+            building.getRouter().handleRequest(request);
+            return request.getCallFloor();
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package com.elevator.dispatcher;
+
+import static com.elevator.ElevatorSystemTest.check;
+import static com.elevator.ElevatorSystemTest.checkEqual;
+
+import com.elevator.config.BuildingConfig;
+import com.elevator.core.Building;
+import com.elevator.core.Simulation;
+import com.elevator.core.SimulationClock;
+import com.elevator.elevator.Direction;
+import com.elevator.event.CompositeEventListener;
+import com.elevator.event.ElevatorEventListener;
+import com.elevator.metrics.PassengerMetrics;
+import com.elevator.metrics.RunStatistics;
+import com.elevator.request.Request;
+import com.elevator.trace.TraceReader;
+import com.elevator.trace.TraceRecorder;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// BankRouter в здании с sky lobby (как sky в ZonedBankBenchmark): маршруты с наименьшим
+// числом пересадок, таблица продолжений по номеру поездки и учёт - каждый следующий участок
+// приходит как новый пассажир, поэтому после прогона до конца пришли == вошли == доставлены
+public class BankRouterCheck {
+    // банки: 0 - 1/2-20, 1 - 1/21-30, 2 - челнок 1 <-> 30, 3 - 30/31-60 (этажи здесь с 0)
+    private static final BuildingConfig SKY = BuildingConfig.defaults()
+            .withArgs(new String[]{"floors=60", "banks=1/2-20:6,1/21-30:6,30:4,30/31-60:8"});
+    private static final int JOURNEYS = 3_000;
+
+    public static void runAll() {
+        routes();
+        try {
+            skyLobbyAccounting();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void routes() {
+        BankRouter router = new Building(SKY, null).getRouter();
+        checkRoute(router, 0, 5, 0, 5);
+        checkRoute(router, 15, 25, 0, 0, 1, 25);
+        checkRoute(router, 0, 44, 1, 29, 3, 44);
+        checkRoute(router, 10, 50, 0, 0, 1, 29, 3, 50);
+        checkRoute(router, 50, 10, 3, 29, 1, 0, 0, 10);
+        checkRoute(router, 29, 50, 3, 50); // уже на этаже пересадки - участок нулевой длины пропущен
+    }
+
+    private static void checkRoute(BankRouter router, int callFloor, int targetFloor, int... expected) {
+        int[] route = router.route(callFloor, targetFloor);
+        check(Arrays.equals(expected, route), "маршрут " + (callFloor + 1) + " -> " + (targetFloor + 1) + ": "
+                + Arrays.toString(route) + ", ожидался " + Arrays.toString(expected));
+    }
+
+    // трасса случайных поездок по всему зданию, воспроизведение до конца
+    private static void skyLobbyAccounting() throws IOException {
+        Path file = Files.createTempFile("sky", ".eltr");
+        try {
+            Random random = new Random(3);
+            try (TraceRecorder recorder = new TraceRecorder(file, SKY.getTotalFloors())) {
+                for (int i = 0; i < JOURNEYS; i++) {
+                    int callFloor = random.nextInt(SKY.getTotalFloors());
+                    int targetFloor;
+                    do {
+                        targetFloor = random.nextInt(SKY.getTotalFloors());
+                    } while (targetFloor == callFloor);
+                    Direction direction = (targetFloor > callFloor) ? Direction.UP : Direction.DOWN;
+                    recorder.record(new Request(callFloor, direction, targetFloor, 1_000 + i * 400L));
+                }
+            }
+
+            RunStatistics statistics = new RunStatistics();
+            SimulationClock clock = new SimulationClock();
+            PassengerMetrics metrics = new PassengerMetrics(SKY.getElevatorsCount(), clock);
+            AtomicIntegerArray waiting = new AtomicIntegerArray(SKY.getTotalFloors()); // как счётчики GUI
+            Building building = new Building(SKY, new CompositeEventListener(statistics, metrics,
+                    new ElevatorEventListener() {
+                        @Override
+                        public void onPassengerArrived(Request request) {
+                            waiting.incrementAndGet(request.getCallFloor());
+                        }
+
+                        @Override
+                        public void onPassengerBoarded(int elevatorId, int floor, long call, long journeyId) {
+                            waiting.decrementAndGet(floor);
+                        }
+                    }));
+            Simulation simulation = new Simulation(building, clock);
+            try (TraceReader reader = new TraceReader(file)) {
+                simulation.replayVirtual(reader, 0);
+            }
+
+            BankRouter router = building.getRouter();
+            check(router.getTransfers() > 0, "sky lobby: были пересадки");
+            checkEqual(statistics.getArrived(), statistics.getBoarded(), "sky lobby: вошли == пришли");
+            checkEqual(statistics.getArrived(), statistics.getAlighted(), "sky lobby: доставлены == пришли");
+            checkEqual(JOURNEYS, statistics.getAlighted() - router.getTransfers(), "sky lobby: поездок завершено");
+            checkEqual(0, router.getPendingContinuations(), "sky lobby: продолжений не осталось");
+            checkEqual(statistics.getBoarded(), metrics.getWaitTime().getCount(), "sky lobby: ожидание по каждому участку");
+            checkEqual(statistics.getAlighted(), metrics.getRideTime().getCount(), "sky lobby: поездка по каждому участку");
+            int drift = 0;
+            for (int floor = 0; floor < waiting.length(); floor++) {
+                drift += Math.abs(waiting.get(floor));
+            }
+            checkEqual(0, drift, "sky lobby: счётчики ожидающих на этажах вернулись к нулю");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.elevator.dispatcher;
+
+import com.elevator.config.BuildingConfig;
+import com.elevator.core.Building;
+import com.elevator.core.Simulation;
+import com.elevator.core.SimulationClock;
+import com.elevator.metrics.PassengerMetrics;
+import com.elevator.traffic.DailyRates;
+import com.elevator.traffic.Traffic;
+import com.elevator.util.Logger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// жадное назначение против пакетного: один и тот же поток пассажиров (seed) в виртуальном
+// времени, сравниваются среднее и хвост ожидания и время назначения вызова.
+// Сценарии - всплески поверх офисного дня и ровный обеденный поток
+public class BatchAssignmentBenchmark {
+    private static final long[] WINDOWS = {0, 100, 200, 500}; // 0 - жадно
+    private static final long DURATION = TimeUnit.HOURS.toMillis(1);
+    private static final long SEED = 11;
+
+    public static void runAll() {
+        Logger.Level level = Logger.getLevel();
+        Logger.setLevel(Logger.Level.OFF);
+        try {
+            BuildingConfig tower = BuildingConfig.defaults().withArgs(new String[]{"floors=40", "elevators=16"});
+            run("burst floors=40 elevators=16", tower, "burst", 40);
+            run("lunch floors=40 elevators=16", tower, "lunch", 60);
+            run("up-peak floors=15 elevators=4", BuildingConfig.defaults(), "up-peak", 30);
+        } finally {
+            Logger.setLevel(level);
+        }
+    }
+
+    private static void run(String scenario, BuildingConfig config, String traffic, double perMinute) {
+        for (long window : WINDOWS) {
+            SimulationClock clock = new SimulationClock();
+            PassengerMetrics metrics = new PassengerMetrics(config.getElevatorsCount(), clock);
+            Building building = new Building(config, metrics);
+            Simulation simulation = new Simulation(building, clock, new Random(SEED));
+            simulation.setTraffic(Traffic.named(traffic, DailyRates.constant(perMinute)));
+            simulation.setStartTimeOfDay(TimeUnit.HOURS.toMillis(12));
+            simulation.setBatchWindow(window);
+            simulation.runVirtual(DURATION);
+
+            System.out.printf("%-52s wait mean=%7.0f p95=%7d p99=%7d ms  assign p99=%8d ns%n",
+                    "dispatcher.batch " + scenario + (window == 0 ? " greedy" : " window=" + window),
+                    metrics.getWaitTime().getMean(), metrics.getWaitTime().percentile(0.95),
+                    metrics.getWaitTime().percentile(0.99), metrics.getDispatchLatency().percentile(0.99));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.elevator.dispatcher;
+
+import static com.elevator.ElevatorSystemTest.check;
+import static com.elevator.ElevatorSystemTest.checkEqual;
+
+import com.elevator.config.BuildingConfig;
+import com.elevator.elevator.Direction;
+import com.elevator.elevator.Elevator;
+import com.elevator.elevator.ElevatorSnapshot;
+import com.elevator.event.ElevatorEventListener;
+import com.elevator.request.Request;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// BatchAssignment.solve: на малых пачках (лифтов не больше CANDIDATES - все пары в матрице)
+// венгерский алгоритм даёт ту же суммарную стоимость, что и полный перебор назначений,
+// с надбавками за k-е место в лифте и перегрузку; исчерпанный бюджет - жадно, но каждому вызову лифт
+public class BatchAssignmentCheck {
+    private static final BuildingConfig CONFIG = BuildingConfig.defaults()
+            .withArgs(new String[]{"floors=20", "capacity=3"}); // маленькая вместимость - есть перегрузка
+    private static final int CARS = 4;
+
+    public static void runAll() {
+        Random random = new Random(17);
+        CallScore score = new CallScore(CONFIG.getElevatorCapacity());
+        BatchAssignment assignment = new BatchAssignment(score, CONFIG.getElevatorCapacity());
+        int notOptimal = 0;
+        int invalid = 0;
+        for (int round = 0; round < 200; round++) {
+            ElevatorSnapshot[] snapshots = snapshots(random);
+            List<Request> calls = new ArrayList<>();
+            int n = 1 + random.nextInt(5);
+            for (int i = 0; i < n; i++) {
+                calls.add(randomRequest(random));
+            }
+            int[] result = assignment.solve(calls, snapshots, Long.MAX_VALUE);
+            if (!valid(result, n)) {
+                invalid++;
+                continue;
+            }
+            long best = bruteForce(score, calls, snapshots, new int[n], 0);
+            if (cost(score, calls, snapshots, result) != best) {
+                notOptimal++;
+            }
+        }
+        checkEqual(0, invalid, "BatchAssignment: каждому вызову - существующий лифт");
+        checkEqual(0, notOptimal, "BatchAssignment: стоимость как у полного перебора");
+
+        // два вызова с одного этажа и два свободных лифта рядом - вызовы расходятся по лифтам
+        ElevatorSnapshot[] idle = new ElevatorSnapshot[2];
+        for (int c = 0; c < idle.length; c++) {
+            idle[c] = new Elevator(c, CONFIG, ElevatorEventListener.NONE).getSnapshot();
+        }
+        List<Request> pair = List.of(new Request(0, Direction.UP, 9, 0), new Request(0, Direction.UP, 12, 0));
+        int[] spread = assignment.solve(pair, idle, Long.MAX_VALUE);
+        check(spread[0] != spread[1], "BatchAssignment: одновременные вызовы не уходят одному лифту");
+
+        // бюджет исчерпан до первой строки - жадный добор всё равно назначает всех
+        List<Request> late = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            late.add(randomRequest(random));
+        }
+        check(valid(assignment.solve(late, snapshots(random), 0), late.size()),
+                "BatchAssignment: без бюджета каждому вызову - лифт");
+
+        // бюджет кончается посреди пачки - результат зависит только от входа, а не от времени
+        ElevatorSnapshot[] cars = snapshots(random);
+        int[] once = assignment.solve(late, cars, 300);
+        check(valid(once, late.size()), "BatchAssignment: бюджет посреди пачки - каждому вызову лифт");
+        check(Arrays.equals(once, assignment.solve(late, cars, 300)),
+                "BatchAssignment: при том же бюджете - то же назначение");
+
+        failedTimer();
+    }
+
+    // таймер не принял сбор пачки - вызовы назначаются сразу, а не остаются в пачке
+    private static void failedTimer() {
+        List<Elevator> cars = new ArrayList<>();
+        for (int c = 0; c < 2; c++) {
+            cars.add(new Elevator(c, CONFIG, ElevatorEventListener.NONE));
+        }
+        ElevatorDispatcher dispatcher = new ElevatorDispatcher(cars, CONFIG);
+        dispatcher.setBatching(100, (delay, action) -> {
+            throw new IllegalStateException("планировщик остановлен");
+        });
+        dispatcher.handleRequest(new Request(3, Direction.UP, 9, 0));
+        dispatcher.handleRequest(new Request(5, Direction.DOWN, 1, 0));
+        int pending = 0;
+        for (Elevator car : cars) {
+            pending += car.getSnapshot().getPendingCount();
+        }
+        checkEqual(2, pending, "ElevatorDispatcher: таймер пачки упал - вызовы всё равно у лифтов");
+    }
+
+    // лифты в разных этажах, с пассажирами и ожидающими
+    private static ElevatorSnapshot[] snapshots(Random random) {
+        ElevatorSnapshot[] snapshots = new ElevatorSnapshot[CARS];
+        for (int c = 0; c < CARS; c++) {
+            Elevator elevator = new Elevator(c, CONFIG, ElevatorEventListener.NONE);
+            int requests = random.nextInt(4);
+            for (int i = 0; i < requests; i++) {
+                elevator.addRequest(randomRequest(random));
+            }
+            int steps = random.nextInt(40);
+            for (int i = 0; i < steps; i++) {
+                elevator.step();
+            }
+            snapshots[c] = elevator.getSnapshot();
+        }
+        return snapshots;
+    }
+
+    private static Request randomRequest(Random random) {
+        int floors = CONFIG.getTotalFloors();
+        int callFloor = random.nextInt(floors);
+        int targetFloor = (callFloor + 1 + random.nextInt(floors - 1)) % floors;
+        return new Request(callFloor, (targetFloor > callFloor) ? Direction.UP : Direction.DOWN, targetFloor, 0);
+    }
+
+    private static boolean valid(int[] result, int n) {
+        if (result.length != n) {
+            return false;
+        }
+        for (int car : result) {
+            if (car < 0 || car >= CARS) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // стоимость назначения в модели BatchAssignment: оценка вызова + k * LOAD_STEP за k-е место
+    // в лифте (с 0) + OVERLOAD за места сверх свободной вместимости
+    private static long cost(CallScore score, List<Request> calls, ElevatorSnapshot[] snapshots, int[] carOf) {
+        long total = 0;
+        int[] taken = new int[snapshots.length];
+        for (int i = 0; i < calls.size(); i++) {
+            int c = carOf[i];
+            int free = CONFIG.getElevatorCapacity() - snapshots[c].getPassengerCount() - snapshots[c].getPendingCount();
+            int k = taken[c]++;
+            total += score.calculateScore(snapshots[c], calls.get(i)) + (long) k * BatchAssignment.LOAD_STEP
+                    + (k >= free ? BatchAssignment.OVERLOAD : 0);
+        }
+        return total;
+    }
+
+    private static long bruteForce(CallScore score, List<Request> calls, ElevatorSnapshot[] snapshots,
+                                   int[] carOf, int call) {
+        if (call == carOf.length) {
+            return cost(score, calls, snapshots, carOf);
+        }
+        long best = Long.MAX_VALUE;
+        for (int c = 0; c < snapshots.length; c++) {
+            carOf[call] = c;
+            best = Math.min(best, bruteForce(score, calls, snapshots, carOf, call + 1));
+        }
+        return best;
+    }
+}
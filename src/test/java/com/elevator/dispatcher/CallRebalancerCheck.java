@@ -0,0 +1,110 @@
+package com.elevator.dispatcher;
+
+import static com.elevator.ElevatorSystemTest.check;
+import static com.elevator.ElevatorSystemTest.checkEqual;
+
+import com.elevator.config.BuildingConfig;
+import com.elevator.elevator.Direction;
+import com.elevator.elevator.Elevator;
+import com.elevator.elevator.PendingCalls;
+import com.elevator.event.ElevatorEventListener;
+import com.elevator.request.Request;
+import java.util.ArrayList;
+import java.util.List;
+
+// CallRebalancer: ни один вызов не теряется и не обслуживается дважды, вызов, переданный
+// MAX_TRANSFERS раз, остаётся у владельца, даже когда его очередь уходит другому лифту
+public class CallRebalancerCheck {
+    private static final BuildingConfig CONFIG = BuildingConfig.defaults();
+    private static final int CALLS = 60;
+
+    public static void runAll() {
+        releaseKeepsCappedCalls();
+        conservation();
+    }
+
+    private static void releaseKeepsCappedCalls() {
+        Elevator elevator = new Elevator(0, CONFIG, ElevatorEventListener.NONE);
+        elevator.addRequest(new Request(5, Direction.UP, 9, 1));
+        elevator.addRequest(new Request(5, Direction.UP, 7, 2, CallRebalancer.MAX_TRANSFERS, 2));
+        elevator.addRequest(new Request(5, Direction.UP, 8, 3));
+        List<Request> released = new ArrayList<>();
+        int count = elevator.releaseCalls(5, Direction.UP, CallRebalancer.MAX_TRANSFERS, released);
+        checkEqual(2, count, "releaseCalls: отданы вызовы без лимита передач");
+        checkEqual(1, released.get(0).getTimestamp(), "releaseCalls: порядок отданных");
+        checkEqual(3, released.get(1).getTimestamp(), "releaseCalls: порядок отданных");
+        checkEqual(1, elevator.getSnapshot().getPendingCount(), "releaseCalls: вызов на лимите остался у лифта");
+        check(elevator.hasPendingCalls(), "releaseCalls: этаж вызова на лимите по-прежнему ждёт");
+    }
+
+    // все вызовы назначены одному лифту, остальные свободны: перераспределение раздаёт очереди,
+    // лифты шагают, пока не развезут всех; каждый вызов (по своему времени вызова) входит
+    // и выходит ровно один раз
+    private static void conservation() {
+        int elevatorsCount = CONFIG.getElevatorsCount();
+        int[] boarded = new int[CALLS + 1];
+        int[] alighted = new int[CALLS + 1];
+        int[] boardedBy = new int[CALLS + 1];
+        int[] maxTransfers = new int[1];
+        ElevatorEventListener listener = new ElevatorEventListener() {
+            @Override
+            public void onPassengerBoarded(int elevatorId, int floor, long call, long journeyId) {
+                int number = (int) PendingCalls.timestampOf(call);
+                boarded[number]++;
+                boardedBy[number] = elevatorId;
+                maxTransfers[0] = Math.max(maxTransfers[0], PendingCalls.transfersOf(call));
+            }
+
+            @Override
+            public void onPassengerAlighted(int elevatorId, int floor, long call, long journeyId, long boardedAt) {
+                alighted[(int) PendingCalls.timestampOf(call)]++;
+            }
+        };
+        List<Elevator> elevators = new ArrayList<>();
+        for (int id = 0; id < elevatorsCount; id++) {
+            elevators.add(new Elevator(id, CONFIG, listener));
+        }
+        ElevatorDispatcher dispatcher = new ElevatorDispatcher(elevators, CONFIG);
+
+        int floors = CONFIG.getTotalFloors();
+        int capped = -1;
+        for (int call = 1; call <= CALLS; call++) {
+            int callFloor = 1 + (call * 7) % (floors - 1);
+            int targetFloor = (call % 3 == 0) ? 0 : (callFloor + 1 + call % 4) % floors;
+            if (targetFloor == callFloor) {
+                targetFloor = 0;
+            }
+            Direction direction = (targetFloor > callFloor) ? Direction.UP : Direction.DOWN;
+            // второй вызов этажа 8 вниз уже передавали предельное число раз
+            boolean atLimit = capped < 0 && callFloor == 8 && direction == Direction.DOWN && call > 8;
+            if (atLimit) {
+                capped = call;
+            }
+            elevators.get(0).addRequest(new Request(callFloor, direction, targetFloor, call,
+                    atLimit ? CallRebalancer.MAX_TRANSFERS : 0, call));
+        }
+
+        int moved = 0;
+        for (int round = 0; round < 10_000 && dispatcher.hasWork(); round++) {
+            if (round % 4 == 0) {
+                moved += dispatcher.rebalance();
+            }
+            for (Elevator elevator : elevators) {
+                elevator.step();
+            }
+        }
+
+        check(!dispatcher.hasWork(), "перераспределение: все вызовы развезены");
+        check(moved > 0, "перераспределение: вызовы переходили к другим лифтам");
+        checkEqual(moved, dispatcher.getRebalancedCalls(), "перераспределение: счётчик переданных");
+        for (int call = 1; call <= CALLS; call++) {
+            checkEqual(1, boarded[call], "вызов " + call + " вошёл");
+            checkEqual(1, alighted[call], "вызов " + call + " вышел");
+        }
+        check(maxTransfers[0] <= CallRebalancer.MAX_TRANSFERS, "перераспределение: передач не больше MAX_TRANSFERS");
+        check(capped > 0, "перераспределение: есть вызов на лимите передач");
+        if (capped > 0) {
+            checkEqual(0, boardedBy[capped], "вызов на лимите передач уехал с владельцем");
+        }
+    }
+}
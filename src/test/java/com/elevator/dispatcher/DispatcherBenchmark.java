@@ -0,0 +1,145 @@
+package com.elevator.dispatcher;
+
+import com.elevator.benchmark.Bench;
+import com.elevator.config.BuildingConfig;
+import com.elevator.core.DiscreteEventEngine;
+import com.elevator.elevator.Direction;
+import com.elevator.elevator.Elevator;
+import com.elevator.event.ElevatorEventListener;
+import com.elevator.request.Request;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+// бенчмарки диспетчера: handleRequest, findBestElevator (по индексу CarIndex и полным
+// перебором), calculateScore для 4, 64 и 1024 лифтов, в один поток и под конкуренцией
+// нескольких генераторов запросов. Перед замером проверяет, что индекс выбирает те же лифты;
+// расхождение - FAIL и ненулевой код выхода BenchmarkMain
+public class DispatcherBenchmark {
+    private static final int[] ELEVATOR_COUNTS = {4, 64, 1024};
+    private static final int REQUEST_POOL = 4096;
+    private static final long WARMUP_TRAFFIC_MILLIS = 120_000; // виртуальное время "прогрева" здания
+    private static final BuildingConfig CONFIG = BuildingConfig.defaults();
+
+    // true - индекс совпал с перебором на всех запросах
+    public static boolean runAll(int contendedThreads) {
+        boolean ok = true;
+        for (int elevators : ELEVATOR_COUNTS) {
+            ok &= checkIndex(elevators);
+            for (int threads : new int[]{1, contendedThreads}) {
+                Bench.run("dispatcher.handleRequest elevators=" + elevators, threads,
+                        () -> handleRequest(elevators));
+                Bench.run("dispatcher.findBestElevator elevators=" + elevators, threads,
+                        () -> findBestElevator(elevators));
+                Bench.run("dispatcher.findBestElevatorByScan elevators=" + elevators, threads,
+                        () -> findBestElevatorByScan(elevators));
+                Bench.run("dispatcher.calculateScore elevators=" + elevators, threads,
+                        () -> calculateScore(elevators));
+            }
+        }
+        return ok;
+    }
+
+    private static Bench.Operation handleRequest(int elevatorCount) {
+        ElevatorDispatcher dispatcher = new ElevatorDispatcher(warmElevators(elevatorCount), CONFIG);
+        Request[] requests = requestPool();
+        return threadIndex -> {
+            Request request = requests[ThreadLocalRandom.current().nextInt(requests.length)];
+            dispatcher.handleRequest(request);
+            return request.getCallFloor();
+        };
+    }
+
+    private static Bench.Operation findBestElevator(int elevatorCount) {
+        ElevatorDispatcher dispatcher = new ElevatorDispatcher(warmElevators(elevatorCount), CONFIG);
+        Request[] requests = requestPool();
+        return threadIndex -> {
+            Request request = requests[ThreadLocalRandom.current().nextInt(requests.length)];
+            return dispatcher.findBestElevator(request).getElevatorId();
+        };
+    }
+
+    private static Bench.Operation findBestElevatorByScan(int elevatorCount) {
+        ElevatorDispatcher dispatcher = new ElevatorDispatcher(warmElevators(elevatorCount), CONFIG);
+        Request[] requests = requestPool();
+        return threadIndex -> {
+            Request request = requests[ThreadLocalRandom.current().nextInt(requests.length)];
+            return dispatcher.findBestElevatorByScan(request).getElevatorId();
+        };
+    }
+
+    // лифты стоят (движок остановлен), поэтому индекс и перебор должны совпасть на каждом запросе
+    private static boolean checkIndex(int elevatorCount) {
+        ElevatorDispatcher dispatcher = new ElevatorDispatcher(warmElevators(elevatorCount), CONFIG);
+        int mismatches = 0;
+        for (Request request : requestPool()) {
+            if (dispatcher.findBestElevator(request) != dispatcher.findBestElevatorByScan(request)) {
+                mismatches++;
+            }
+        }
+        System.out.printf("%-52s %d of %d requests  %s%n", "dispatcher.carIndex mismatches elevators=" + elevatorCount,
+                mismatches, REQUEST_POOL, mismatches == 0 ? "OK" : "FAIL");
+        return mismatches == 0;
+    }
+
+    private static Bench.Operation calculateScore(int elevatorCount) {
+        List<Elevator> elevators = warmElevators(elevatorCount);
+        ElevatorDispatcher dispatcher = new ElevatorDispatcher(elevators, CONFIG);
+        Request[] requests = requestPool();
+        return threadIndex -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Elevator elevator = elevators.get(random.nextInt(elevators.size()));
+            return dispatcher.calculateScore(elevator.getSnapshot(), requests[random.nextInt(requests.length)]);
+        };
+    }
+
+    // лифты в разных этажах и состояниях: прогоняем случайный трафик в виртуальном времени
+    // и останавливаем движок посреди работы
+    static List<Elevator> warmElevators(int count) {
+        List<Elevator> elevators = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            elevators.add(new Elevator(i, CONFIG, ElevatorEventListener.NONE));
+        }
+        ElevatorDispatcher dispatcher = new ElevatorDispatcher(elevators, CONFIG);
+        DiscreteEventEngine engine = new DiscreteEventEngine();
+        engine.attachElevators(elevators);
+
+        Random random = new Random(42);
+        long period = Math.max(1, 5_000 / count); // ~ один пассажир на лифт за 5 с
+        Runnable arrival = new Runnable() {
+            @Override
+            public void run() {
+                dispatcher.handleRequest(randomRequest(random, engine.now()));
+                engine.schedule(period, this);
+            }
+        };
+        engine.schedule(0, arrival);
+        engine.runUntil(WARMUP_TRAFFIC_MILLIS);
+
+        // дальше лифты только принимают запросы, движок их больше не будит
+        for (Elevator elevator : elevators) {
+            elevator.setWakeupHandler(null);
+        }
+        return elevators;
+    }
+
+    static Request[] requestPool() {
+        Random random = new Random(7);
+        Request[] requests = new Request[REQUEST_POOL];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = randomRequest(random, 0);
+        }
+        return requests;
+    }
+
+    private static Request randomRequest(Random random, long timestamp) {
+        int callFloor = random.nextInt(CONFIG.getTotalFloors());
+        int targetFloor;
+        do {
+            targetFloor = random.nextInt(CONFIG.getTotalFloors());
+        } while (targetFloor == callFloor);
+        Direction direction = (targetFloor > callFloor) ? Direction.UP : Direction.DOWN;
+        return new Request(callFloor, direction, targetFloor, timestamp);
+    }
+}
@@ -0,0 +1,107 @@
+package com.elevator.elevator;
+
+import com.elevator.benchmark.Bench;
+import com.elevator.config.BuildingConfig;
+import com.elevator.event.ElevatorEventListener;
+import com.elevator.request.Request;
+import java.util.concurrent.ThreadLocalRandom;
+
+// конкуренция читателей-диспетчеров с потоком лифта: лифт без пауз крутит step() и получает
+// новые вызовы, N потоков читают этаж, направление, загрузку и willStopAtFloor.
+//   snapshot - readSnapshot в свой снимок, как findBestElevator (StampedLock view, одно чтение)
+//   getters  - четыре геттера Elevator, у каждого своё оптимистичное чтение
+//   stepLock - те же поля одним захватом ReentrantLock шага, как читали раньше
+// Кроме пропускной способности читателей печатает, сколько шагов успел сделать лифт:
+// под lock читатели тормозят и сам лифт
+public class ElevatorContentionBenchmark {
+    private static final BuildingConfig CONFIG = BuildingConfig.defaults();
+    private static final int REQUESTS = 4096;
+
+    private enum Mode { SNAPSHOT, GETTERS, STEP_LOCK }
+
+    public static void runAll(int threads) {
+        run("elevator.read snapshot", threads, Mode.SNAPSHOT);
+        run("elevator.read getters", threads, Mode.GETTERS);
+        run("elevator.read stepLock", threads, Mode.STEP_LOCK);
+    }
+
+    private static void run(String name, int threads, Mode mode) {
+        Elevator elevator = new Elevator(0, CONFIG, ElevatorEventListener.NONE);
+        CarThread car = new CarThread(elevator);
+        car.start();
+        try {
+            int floors = CONFIG.getTotalFloors();
+            ElevatorSnapshot[] snapshots = new ElevatorSnapshot[threads]; // свой у каждого читателя
+            for (int t = 0; t < threads; t++) {
+                snapshots[t] = new ElevatorSnapshot(floors);
+            }
+            Bench.run(name, threads, () -> threadIndex -> {
+                int floor = ThreadLocalRandom.current().nextInt(floors);
+                switch (mode) {
+                    case SNAPSHOT: {
+                        ElevatorSnapshot snapshot = elevator.readSnapshot(snapshots[threadIndex]);
+                        return snapshot.getCurrentFloor() + snapshot.getDirection().ordinal()
+                                + snapshot.getPassengerCount() + (snapshot.willStopAtFloor(floor) ? 1 : 0);
+                    }
+                    case GETTERS:
+                        return elevator.getCurrentFloor() + elevator.getDirection().ordinal()
+                                + elevator.getActivePassengerCount() + (elevator.willStopAtFloor(floor) ? 1 : 0);
+                    default:
+                        return elevator.readUnderStepLock() + floor;
+                }
+            });
+        } finally {
+            car.finish();
+        }
+        System.out.printf("%-52s %14.0f steps/s%n", "  лифт за время замера", car.stepsPerSecond());
+    }
+
+    // поток лифта: шаги без sleep, вызов на каждый восьмой шаг - lock шага занят почти всегда
+    private static final class CarThread extends Thread {
+        private final Elevator elevator;
+        private final Request[] requests = new Request[REQUESTS];
+        private volatile boolean running = true;
+        private long steps;
+        private long elapsedNanos;
+
+        CarThread(Elevator elevator) {
+            super("bench-car");
+            this.elevator = elevator;
+            int floors = CONFIG.getTotalFloors();
+            for (int i = 0; i < requests.length; i++) {
+                int callFloor = (i * 7) % floors;
+                int targetFloor = (callFloor + 1 + (i * 3) % (floors - 1)) % floors;
+                Direction direction = (targetFloor > callFloor) ? Direction.UP : Direction.DOWN;
+                requests[i] = new Request(callFloor, direction, targetFloor, 0);
+            }
+        }
+
+        @Override
+        public void run() {
+            long begin = System.nanoTime();
+            long count = 0;
+            while (running) {
+                if (count % 8 == 0) {
+                    elevator.addRequest(requests[(int) (count / 8) % requests.length]);
+                }
+                elevator.step();
+                count++;
+            }
+            steps = count;
+            elapsedNanos = System.nanoTime() - begin;
+        }
+
+        void finish() {
+            running = false;
+            try {
+                join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        double stepsPerSecond() {
+            return steps * 1e9 / Math.max(1, elapsedNanos);
+        }
+    }
+}
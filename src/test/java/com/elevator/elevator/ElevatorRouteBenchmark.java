@@ -0,0 +1,50 @@
+package com.elevator.elevator;
+
+import com.elevator.benchmark.Bench;
+import com.elevator.config.BuildingConfig;
+import com.elevator.event.ElevatorEventListener;
+import com.elevator.request.Request;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+// бенчмарки маршрутных помощников лифта при разном числе назначенных запросов:
+// findNextStop, calculateOptimalDirection, willStopAtFloor
+public class ElevatorRouteBenchmark {
+    private static final int[] REQUEST_COUNTS = {1, 8, 64, 512};
+    private static final BuildingConfig CONFIG = BuildingConfig.defaults();
+
+    public static void runAll() {
+        for (int requests : REQUEST_COUNTS) {
+            Bench.run("elevator.findNextStop requests=" + requests, 1, () -> {
+                Elevator elevator = loadedElevator(requests);
+                return threadIndex -> elevator.findNextStop();
+            });
+            Bench.run("elevator.calculateOptimalDirection requests=" + requests, 1, () -> {
+                Elevator elevator = loadedElevator(requests);
+                return threadIndex -> elevator.calculateOptimalDirection().ordinal();
+            });
+            Bench.run("elevator.willStopAtFloor requests=" + requests, 1, () -> {
+                Elevator elevator = loadedElevator(requests);
+                return threadIndex -> elevator.willStopAtFloor(
+                        ThreadLocalRandom.current().nextInt(CONFIG.getTotalFloors())) ? 1 : 0;
+            });
+        }
+    }
+
+    // лифт на первом этаже: часть пассажиров (до вместимости) в кабине, остальные ждут на этажах
+    private static Elevator loadedElevator(int requests) {
+        Elevator elevator = new Elevator(0, CONFIG, ElevatorEventListener.NONE);
+        Random random = new Random(requests);
+        for (int i = 0; i < requests; i++) {
+            int callFloor = (i % 2 == 0) ? 0 : random.nextInt(CONFIG.getTotalFloors());
+            int targetFloor;
+            do {
+                targetFloor = random.nextInt(CONFIG.getTotalFloors());
+            } while (targetFloor == callFloor);
+            Direction direction = (targetFloor > callFloor) ? Direction.UP : Direction.DOWN;
+            elevator.addRequest(new Request(callFloor, direction, targetFloor, 0));
+        }
+        elevator.step(); // посадка на первом этаже и выбор направления
+        return elevator;
+    }
+}
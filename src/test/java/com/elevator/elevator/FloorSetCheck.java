@@ -0,0 +1,91 @@
+package com.elevator.elevator;
+
+import static com.elevator.ElevatorSystemTest.check;
+import static com.elevator.ElevatorSystemTest.checkEqual;
+
+import java.util.Random;
+
+// FloorSet: этажи на границах слов маски и поиск ближайшего выше/ниже против прямого обхода
+public class FloorSetCheck {
+    private static final int FLOORS = 200; // четыре слова, последнее неполное
+
+    public static void runAll() {
+        wordBoundaries();
+        nearestMatchesScan();
+        closer();
+    }
+
+    private static void wordBoundaries() {
+        FloorSet set = new FloorSet(FLOORS);
+        check(set.isEmpty(), "FloorSet: новое множество пустое");
+        int[] floors = {0, 63, 64, 127, 128, FLOORS - 1};
+        for (int floor : floors) {
+            set.add(floor);
+        }
+        for (int floor : floors) {
+            check(set.contains(floor), "FloorSet: этаж " + floor + " добавлен");
+        }
+        check(!set.contains(62) && !set.contains(65) && !set.contains(129), "FloorSet: соседние этажи не задеты");
+        check(!set.contains(-1) && !set.contains(256), "FloorSet: этажи вне маски не содержатся");
+        checkEqual(63, set.nextAbove(0), "FloorSet: выше 1-го");
+        checkEqual(64, set.nextAbove(63), "FloorSet: выше 64-го - через границу слова");
+        checkEqual(-1, set.nextAbove(FLOORS - 1), "FloorSet: выше верхнего нет");
+        checkEqual(0, set.nextAbove(-1), "FloorSet: выше -1 - нижний этаж");
+        checkEqual(127, set.nextBelow(128), "FloorSet: ниже 129-го - через границу слова");
+        checkEqual(FLOORS - 1, set.nextBelow(1_000), "FloorSet: ниже этажа за маской - верхний");
+        checkEqual(-1, set.nextBelow(0), "FloorSet: ниже 1-го нет");
+
+        for (int floor : floors) {
+            set.remove(floor);
+        }
+        check(set.isEmpty(), "FloorSet: после удаления пусто");
+        checkEqual(-1, set.nextAbove(-1), "FloorSet: в пустом выше нет");
+        checkEqual(-1, set.nextBelow(FLOORS), "FloorSet: в пустом ниже нет");
+    }
+
+    private static void nearestMatchesScan() {
+        Random random = new Random(5);
+        int wrong = 0;
+        for (int round = 0; round < 200; round++) {
+            FloorSet set = new FloorSet(FLOORS);
+            boolean[] present = new boolean[FLOORS];
+            int count = random.nextInt(12);
+            for (int i = 0; i < count; i++) {
+                int floor = random.nextInt(FLOORS);
+                set.add(floor);
+                present[floor] = true;
+            }
+            for (int floor = -1; floor <= FLOORS; floor++) {
+                if (set.nextAbove(floor) != scanAbove(present, floor) || set.nextBelow(floor) != scanBelow(present, floor)) {
+                    wrong++;
+                }
+            }
+        }
+        checkEqual(0, wrong, "FloorSet: nextAbove/nextBelow совпадают с обходом");
+    }
+
+    private static void closer() {
+        checkEqual(7, FloorSet.closer(-1, 7, true), "FloorSet.closer: первого нет");
+        checkEqual(5, FloorSet.closer(5, 9, true), "FloorSet.closer: выше - меньший");
+        checkEqual(9, FloorSet.closer(5, 9, false), "FloorSet.closer: ниже - больший");
+        checkEqual(-1, FloorSet.closer(-1, -1, false), "FloorSet.closer: обоих нет");
+    }
+
+    private static int scanAbove(boolean[] present, int floor) {
+        for (int f = Math.max(0, floor + 1); f < present.length; f++) {
+            if (present[f]) {
+                return f;
+            }
+        }
+        return -1;
+    }
+
+    private static int scanBelow(boolean[] present, int floor) {
+        for (int f = Math.min(present.length, floor) - 1; f >= 0; f--) {
+            if (present[f]) {
+                return f;
+            }
+        }
+        return -1;
+    }
+}
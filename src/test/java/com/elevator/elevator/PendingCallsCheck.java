@@ -0,0 +1,159 @@
+package com.elevator.elevator;
+
+import static com.elevator.ElevatorSystemTest.check;
+import static com.elevator.ElevatorSystemTest.checkEqual;
+
+import com.elevator.request.Request;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// LongQueue против ArrayDeque (рост, переход через конец массива) и PendingCalls:
+// упаковка полей на границах (целевой этаж 16 бит, передачи 6 бит, время 42 бита),
+// посадка вызова с номером поездки в ActiveRiders, порядок в очереди этажа и drain
+public class PendingCallsCheck {
+    private static final long MAX_TIMESTAMP = (1L << 42) - 1;
+
+    public static void runAll() {
+        longQueue();
+        packBoundaries();
+        pollRestoresCalls();
+        drainKeepsOrder();
+    }
+
+    private static void longQueue() {
+        LongQueue queue = new LongQueue();
+        ArrayDeque<Long> expected = new ArrayDeque<>();
+        Random random = new Random(9);
+        int wrong = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (expected.isEmpty() || random.nextInt(3) != 0) {
+                long value = random.nextLong();
+                queue.addLast(value);
+                expected.addLast(value);
+            } else if (queue.pollFirst() != expected.pollFirst()) {
+                wrong++;
+            }
+            if (queue.size() != expected.size() || (!expected.isEmpty() && queue.peekFirst() != expected.peekFirst())) {
+                wrong++;
+            }
+        }
+        int i = 0;
+        for (long value : expected) {
+            if (queue.get(i++) != value) {
+                wrong++;
+            }
+        }
+        checkEqual(0, wrong, "LongQueue: тот же порядок, что у ArrayDeque");
+        queue.clear();
+        check(queue.isEmpty(), "LongQueue: пуста после clear");
+        queue.addLast(42);
+        checkEqual(42, queue.pollFirst(), "LongQueue: работает после clear");
+    }
+
+    private static void packBoundaries() {
+        long[][] fields = {
+                {0, 0, 0},
+                {65_535, 63, MAX_TIMESTAMP},
+                {32_768, 1, 1L << 41},
+                {1, 62, 1_700_000_000_000L},
+        };
+        for (long[] field : fields) {
+            Request request = new Request(0, Direction.UP, (int) field[0], field[2], (int) field[1], 1);
+            long call = PendingCalls.pack(request);
+            String what = "PendingCalls.pack: этаж " + field[0] + ", передач " + field[1] + ", время " + field[2];
+            checkEqual(field[0], PendingCalls.targetOf(call), what + " - этаж");
+            checkEqual(field[1], PendingCalls.transfersOf(call), what + " - передачи");
+            checkEqual(field[2], PendingCalls.timestampOf(call), what + " - время");
+        }
+        long capped = PendingCalls.pack(new Request(3, Direction.UP, 9, 5, 100, 1));
+        checkEqual(63, PendingCalls.transfersOf(capped), "PendingCalls.pack: передачи сверх 6 бит - 63");
+        checkEqual(9, PendingCalls.targetOf(capped), "PendingCalls.pack: лишние передачи не задевают этаж");
+        checkEqual(5, PendingCalls.timestampOf(capped), "PendingCalls.pack: лишние передачи не задевают время");
+        check(rejects(-1), "PendingCalls.pack: отрицательное время - ошибка");
+        check(rejects(MAX_TIMESTAMP + 1), "PendingCalls.pack: время сверх 42 бит - ошибка");
+    }
+
+    private static boolean rejects(long timestamp) {
+        try {
+            PendingCalls.pack(new Request(0, Direction.UP, 1, timestamp, 0, 1));
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    private static void pollRestoresCalls() {
+        PendingCalls calls = new PendingCalls(70_000);
+        Request up = new Request(65_000, Direction.UP, 65_535, MAX_TIMESTAMP, 7, Long.MAX_VALUE);
+        Request down = new Request(65_000, Direction.DOWN, 2, 11, 0, 12_345);
+        Request second = new Request(65_000, Direction.UP, 65_001, 12, 0, 12_346);
+        calls.add(up);
+        calls.add(down);
+        calls.add(second);
+        checkEqual(3, calls.size(), "PendingCalls: три ожидающих");
+        int[] counts = new int[70_000];
+        calls.countByFloor(counts);
+        checkEqual(3, counts[65_000], "PendingCalls.countByFloor: по вызовам, а не по long очереди");
+        List<Request> heads = new ArrayList<>();
+        calls.collectHeads(heads);
+        checkEqual(2, heads.size(), "PendingCalls.collectHeads: по голове на направление");
+        checkEqual(up.getJourneyId(), heads.get(0).getJourneyId(), "PendingCalls.collectHeads: номер поездки головы");
+
+        LongQueue boarded = new LongQueue();
+        check(calls.poll(65_000, Direction.UP, boarded), "PendingCalls.poll: вверх ждут");
+        checkEqual(2, boarded.size(), "PendingCalls.poll: пассажир - два long");
+        checkEqual(65_535, PendingCalls.targetOf(boarded.get(0)), "PendingCalls.poll: целевой этаж");
+        checkEqual(MAX_TIMESTAMP, PendingCalls.timestampOf(boarded.get(0)), "PendingCalls.poll: время");
+        checkEqual(7, PendingCalls.transfersOf(boarded.get(0)), "PendingCalls.poll: передачи");
+        checkEqual(Long.MAX_VALUE, boarded.get(1), "PendingCalls.poll: номер поездки");
+
+        check(calls.poll(65_000, Direction.UP, boarded), "PendingCalls.poll: второй вверх");
+        checkEqual(65_001, PendingCalls.targetOf(boarded.get(2)), "PendingCalls.poll: порядок в очереди этажа");
+        checkEqual(12_346, boarded.get(3), "PendingCalls.poll: номер поездки второго");
+        check(!calls.poll(65_000, Direction.UP, boarded), "PendingCalls.poll: вверх больше никого");
+        checkEqual(4, boarded.size(), "PendingCalls.poll: пустая очередь ничего не добавляет");
+        check(!calls.hasCallsAt(65_000, Direction.UP), "PendingCalls: этаж снят из маски вверх");
+        check(calls.hasCallsAt(65_000, Direction.DOWN), "PendingCalls: вниз ждут");
+        check(calls.poll(65_000, Direction.DOWN, boarded), "PendingCalls.poll: вниз");
+        checkEqual(12_345, boarded.get(5), "PendingCalls.poll: номер поездки вниз");
+        check(calls.isEmpty(), "PendingCalls: пусто");
+
+        // в кабине - по целевому этажу, выходят все сразу в порядке посадки
+        ActiveRiders riders = new ActiveRiders(70_000, 4);
+        riders.add(boarded.get(0), boarded.get(1), 100);
+        riders.add(boarded.get(4), boarded.get(5), 101);
+        riders.add(boarded.get(0), 7, 102);
+        checkEqual(3, riders.size(), "ActiveRiders: трое в кабине");
+        LongQueue alighted = new LongQueue();
+        checkEqual(2, riders.pollAllAt(65_535, alighted), "ActiveRiders.pollAllAt: двое на верхний этаж");
+        checkEqual(6, alighted.size(), "ActiveRiders.pollAllAt: пассажир - три long");
+        checkEqual(Long.MAX_VALUE, alighted.get(1), "ActiveRiders.pollAllAt: номер поездки первого");
+        checkEqual(100, alighted.get(2), "ActiveRiders.pollAllAt: время посадки первого");
+        checkEqual(7, alighted.get(4), "ActiveRiders.pollAllAt: второй - в порядке посадки");
+        check(!riders.hasTargetAt(65_535), "ActiveRiders: этаж снят из маски");
+        checkEqual(2, riders.nextTargetBelow(65_535), "ActiveRiders: осталась цель вниз");
+        checkEqual(0, riders.pollAllAt(65_535, alighted), "ActiveRiders.pollAllAt: второй раз никого");
+    }
+
+    private static void drainKeepsOrder() {
+        PendingCalls calls = new PendingCalls(10);
+        for (int i = 0; i < 6; i++) {
+            calls.add(new Request(4, Direction.DOWN, i % 4, 100 + i, (i % 2 == 0) ? 3 : 0, 500 + i));
+        }
+        List<Request> drained = new ArrayList<>();
+        checkEqual(3, calls.drain(4, Direction.DOWN, 3, drained), "PendingCalls.drain: вызовы без лимита передач");
+        for (int i = 0; i < drained.size(); i++) {
+            checkEqual(501 + 2 * i, drained.get(i).getJourneyId(), "PendingCalls.drain: порядок и номер поездки");
+        }
+        checkEqual(3, calls.size(), "PendingCalls.drain: на лимите остались");
+        LongQueue left = new LongQueue();
+        for (int i = 0; i < 3; i++) {
+            calls.poll(4, Direction.DOWN, left);
+            checkEqual(100 + 2 * i, PendingCalls.timestampOf(left.get(2 * i)), "PendingCalls.drain: время оставшихся");
+            checkEqual(500 + 2 * i, left.get(2 * i + 1), "PendingCalls.drain: порядок оставшихся");
+        }
+        check(calls.isEmpty(), "PendingCalls.drain: все разобраны");
+    }
+}
@@ -0,0 +1,231 @@
+package com.elevator.elevator;
+
+import com.elevator.config.BuildingConfig;
+import com.elevator.dispatcher.ElevatorDispatcher;
+import com.elevator.event.CompositeEventListener;
+import com.elevator.event.ElevatorEventListener;
+import com.elevator.metrics.PassengerMetrics;
+import com.elevator.metrics.RunStatistics;
+import com.elevator.request.Request;
+import com.elevator.util.Logger;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// сколько байт выделяют публикация событий лифта и шаг step() после прогрева.
+// Считает аллокации текущего потока (com.sun.management.ThreadMXBean), без профайлера:
+//   публикация - ElevatorEventRing.publishState/publish + onStateChanged слушателей метрик
+//   и статистики, и чтение кольца курсором - должны быть 0 байт на событие, иначе FAIL;
+//   шаг step() без посадок (переезд, цикл дверей, высадка) - тоже 0 байт, иначе FAIL;
+//   посадка - 0 байт на вошедшего (пассажир в кабине - упакованные long), иначе FAIL;
+//   назначение (ElevatorDispatcher.handleRequest, перебором и по CarIndex) вместе с шагами
+//   лифтов - 0 байт на запрос, кроме самого Request, который создаёт вызывающий, иначе FAIL.
+// Прогрев - такие же раунды, пока один не пройдёт без аллокаций (не больше MAX_WARMUP_ROUNDS),
+// затем ROUNDS замеров, в зачёт идёт худший
+public class StateAllocationBenchmark {
+    private static final BuildingConfig CONFIG = BuildingConfig.defaults();
+    private static final int WARMUP = 200_000;
+    private static final int EVENTS = 1_000_000;
+    private static final int STEPS = 200_000;
+    private static final int ROUNDS = 3;
+    private static final int MAX_WARMUP_ROUNDS = 20;
+    private static final int[] DISPATCH_ELEVATORS = {4, 32}; // перебор и CarIndex
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // true - публикация состояния без аллокаций
+    public static boolean runAll() {
+        Logger.Level level = Logger.getLevel();
+        Logger.setLevel(Logger.Level.OFF);
+        try {
+            double perEvent = publicationBytesPerEvent();
+            double perRead = consumptionBytesPerEvent();
+            double[] perStep = stepBytes();
+            boolean ok = perEvent == 0 && perRead == 0 && perStep[0] == 0 && perStep[1] == 0;
+            System.out.printf("%-52s %10.2f bytes/event  %s%n", "elevator.eventPublication",
+                    perEvent, perEvent == 0 ? "OK" : "FAIL");
+            System.out.printf("%-52s %10.2f bytes/event  %s%n", "elevator.eventRing.poll",
+                    perRead, perRead == 0 ? "OK" : "FAIL");
+            System.out.printf("%-52s %10.2f bytes/step   %s%n", "elevator.step (переезд, двери, высадка)",
+                    perStep[0], perStep[0] == 0 ? "OK" : "FAIL");
+            System.out.printf("%-52s %10.2f bytes/passenger  %s%n", "elevator.step (посадка)",
+                    perStep[1], perStep[1] == 0 ? "OK" : "FAIL");
+            for (int elevators : DISPATCH_ELEVATORS) {
+                double perRequest = dispatchBytes(elevators);
+                ok &= perRequest == 0;
+                System.out.printf("%-52s %10.2f bytes/request  %s%n", "dispatcher.handleRequest + step elevators=" + elevators,
+                        perRequest, perRequest == 0 ? "OK" : "FAIL");
+            }
+            return ok;
+        } finally {
+            Logger.setLevel(level);
+        }
+    }
+
+    private static ElevatorEventListener listeners(int elevatorsCount) {
+        return new CompositeEventListener(new RunStatistics(),
+                new PassengerMetrics(elevatorsCount, System::currentTimeMillis));
+    }
+
+    // публикация: то же, что step() делает после unlock для смены состояния и посадки
+    private static double publicationBytesPerEvent() {
+        ElevatorEventRing buffer = new ElevatorEventRing(0);
+        ElevatorEventListener listener = listeners(CONFIG.getElevatorsCount());
+        ElevatorState[] states = ElevatorState.values();
+        Direction[] directions = {Direction.UP, Direction.DOWN, Direction.WAIT};
+
+        for (int i = 0; i < WARMUP; i++) {
+            publish(buffer, listener, i, states, directions);
+        }
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < EVENTS; i++) {
+            publish(buffer, listener, i, states, directions);
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+        return (double) allocated / EVENTS;
+    }
+
+    private static void publish(ElevatorEventRing buffer, ElevatorEventListener listener, int i,
+                                ElevatorState[] states, Direction[] directions) {
+        int floor = i % CONFIG.getTotalFloors();
+        if ((i & 1) == 0) {
+            ElevatorState state = states[i % states.length];
+            Direction direction = directions[i % directions.length];
+            buffer.publishState(ElevatorEventRing.pack(floor, state, direction));
+            listener.onStateChanged(0, floor, state, direction);
+        } else {
+            buffer.publishPassenger(ElevatorEventRing.BOARDED, floor, 1, i, 0);
+        }
+    }
+
+    // чтение: курсор догоняет кольцо после каждой пачки публикаций
+    private static double consumptionBytesPerEvent() {
+        ElevatorEventRing buffer = new ElevatorEventRing(0);
+        ElevatorEventRing.Cursor cursor = buffer.newCursor();
+        long[] sink = new long[1];
+        ElevatorEventRing.Handler handler = (elevatorId, event, call, journeyId, boardedAt) -> sink[0] += event;
+        for (int i = 0; i < WARMUP; i++) {
+            buffer.publishPassenger(ElevatorEventRing.BOARDED, i & 63, 1, i, 0);
+            if ((i & 255) == 255) {
+                cursor.poll(handler);
+            }
+        }
+        cursor.poll(handler);
+        long read = 0;
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < EVENTS; i++) {
+            buffer.publishPassenger(ElevatorEventRing.BOARDED, i & 63, 1, i, 0);
+            if ((i & 255) == 255) {
+                read += cursor.poll(handler);
+            }
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+        return (double) allocated / Math.max(1, read);
+    }
+
+    // шаги лифта под нагрузкой: запросы создаются вне замера, считается только step().
+    // [0] - байт на шаг без посадок (переезд, двери, высадка), [1] - байт на вошедшего пассажира
+    // (из упакованного ожидания в кабину - теми же long, без объекта)
+    private static double[] stepBytes() {
+        RunStatistics statistics = new RunStatistics();
+        Elevator elevator = new Elevator(0, CONFIG, new CompositeEventListener(statistics,
+                new PassengerMetrics(CONFIG.getElevatorsCount(), System::currentTimeMillis)));
+        Request[] requests = new Request[STEPS / 4];
+        int floors = CONFIG.getTotalFloors();
+        for (int i = 0; i < requests.length; i++) {
+            int callFloor = (i * 7) % floors;
+            int targetFloor = (callFloor + 1 + (i * 3) % (floors - 1)) % floors;
+            Direction direction = (targetFloor > callFloor) ? Direction.UP : Direction.DOWN;
+            requests[i] = new Request(callFloor, direction, targetFloor, 0);
+        }
+
+        // прогрев - те же раунды, что и замер, пока раунд не пройдёт без аллокаций: до компиляции
+        // всех ветвей step() интерпретатор и деоптимизации дают разовые аллокации
+        long[] totals = new long[4];
+        for (int round = 0; round < MAX_WARMUP_ROUNDS; round++) {
+            stepRound(elevator, statistics, requests, totals);
+            if (totals[0] + totals[2] == 0) {
+                break;
+            }
+        }
+        double quietPerStep = 0;
+        double boardingPerPassenger = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            stepRound(elevator, statistics, requests, totals);
+            quietPerStep = Math.max(quietPerStep, (double) totals[0] / Math.max(1, totals[1]));
+            boardingPerPassenger = Math.max(boardingPerPassenger, (double) totals[2] / Math.max(1, totals[3]));
+        }
+        return new double[]{quietPerStep, boardingPerPassenger};
+    }
+
+    // раунд из STEPS шагов; totals - байт без посадок, шагов без посадок, байт посадок, вошедших
+    private static void stepRound(Elevator elevator, RunStatistics statistics, Request[] requests, long[] totals) {
+        Arrays.fill(totals, 0);
+        for (int i = 0; i < STEPS; i++) {
+            if (i % 8 == 0) {
+                elevator.addRequest(requests[(i / 8) % requests.length]);
+            }
+            long boardedBefore = statistics.getBoarded();
+            long before = THREADS.getCurrentThreadAllocatedBytes();
+            elevator.step();
+            long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+            long boarded = statistics.getBoarded() - boardedBefore;
+            if (boarded == 0) {
+                totals[0] += allocated;
+                totals[1]++;
+            } else {
+                totals[2] += allocated;
+                totals[3] += boarded;
+            }
+        }
+    }
+
+    // назначение и развоз: вызов диспетчеру, затем шаг всех лифтов - очереди не растут,
+    // в замере и посадки, и высадки. Байт на запрос, худший раунд
+    private static double dispatchBytes(int elevatorsCount) {
+        BuildingConfig config = CONFIG.withArgs(new String[]{"elevators=" + elevatorsCount});
+        ElevatorEventListener listener = listeners(elevatorsCount);
+        List<Elevator> elevators = new ArrayList<>();
+        for (int id = 0; id < elevatorsCount; id++) {
+            elevators.add(new Elevator(id, config, listener));
+        }
+        ElevatorDispatcher dispatcher = new ElevatorDispatcher(elevators, config, listener);
+        int floors = config.getTotalFloors();
+        Request[] requests = new Request[STEPS];
+        for (int i = 0; i < requests.length; i++) {
+            int callFloor = (i * 7) % floors;
+            int targetFloor = (callFloor + 1 + (i * 3) % (floors - 1)) % floors;
+            Direction direction = (targetFloor > callFloor) ? Direction.UP : Direction.DOWN;
+            requests[i] = new Request(callFloor, direction, targetFloor, 0);
+        }
+
+        for (int round = 0; round < MAX_WARMUP_ROUNDS; round++) {
+            if (dispatchRound(dispatcher, elevators, requests) == 0) {
+                break;
+            }
+        }
+        double worst = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            worst = Math.max(worst, (double) dispatchRound(dispatcher, elevators, requests) / requests.length);
+        }
+        return worst;
+    }
+
+    // байт за раунд: каждый запрос назначается и все лифты делают шаг
+    private static long dispatchRound(ElevatorDispatcher dispatcher, List<Elevator> elevators, Request[] requests) {
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < requests.length; i++) {
+            dispatch(dispatcher, elevators, requests[i]);
+        }
+        return THREADS.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    private static void dispatch(ElevatorDispatcher dispatcher, List<Elevator> elevators, Request request) {
+        dispatcher.handleRequest(request);
+        for (int i = 0; i < elevators.size(); i++) {
+            elevators.get(i).step();
+        }
+    }
+}
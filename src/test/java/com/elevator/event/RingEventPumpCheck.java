@@ -0,0 +1,73 @@
+package com.elevator.event;
+
+import static com.elevator.ElevatorSystemTest.check;
+import static com.elevator.ElevatorSystemTest.checkEqual;
+
+import com.elevator.config.BuildingConfig;
+import com.elevator.elevator.Direction;
+import com.elevator.elevator.Elevator;
+import com.elevator.elevator.ElevatorEventRing;
+import com.elevator.request.Request;
+import java.util.List;
+
+// RingEventPump: насос, отставший больше чем на кольцо, один раз вызывает пересинхронизацию
+// и догоняет кольца; ожидающие по этажам для неё считаются по очередям лифта
+public class RingEventPumpCheck {
+    private static final BuildingConfig CONFIG = BuildingConfig.defaults();
+
+    public static void runAll() {
+        resyncAfterLoss();
+        waitingByFloor();
+    }
+
+    private static void resyncAfterLoss() {
+        Elevator elevator = new Elevator(0, CONFIG, ElevatorEventListener.NONE);
+        int[] delivered = new int[1];
+        int[] resyncs = new int[1];
+        RingEventPump pump = new RingEventPump(List.of(elevator), new ElevatorEventListener() {
+            @Override
+            public void onDoorsOpened(int elevatorId, int floor) {
+                delivered[0]++;
+            }
+        });
+        pump.setResyncHandler(() -> resyncs[0]++);
+
+        // лифт работает, насос не читает - кольцо обгоняет курсор
+        int floors = CONFIG.getTotalFloors();
+        long published = elevator.getEvents().getPublished();
+        for (int i = 0; elevator.getEvents().getPublished() - published <= 2 * ElevatorEventRing.CAPACITY; i++) {
+            if (!elevator.hasPendingCalls()) {
+                int callFloor = (i * 5) % floors;
+                int targetFloor = (callFloor + 3) % floors;
+                elevator.addRequest(new Request(callFloor, targetFloor > callFloor ? Direction.UP : Direction.DOWN,
+                        targetFloor, i));
+            }
+            elevator.step();
+        }
+        pump.pollOnce();
+        check(pump.getLost() > 0, "насос: отставание больше кольца - события пропущены");
+        checkEqual(1, resyncs[0], "насос: пересинхронизация после пропуска");
+        checkEqual(0, pump.pollOnce(), "насос: после пересинхронизации курсоры на конце колец");
+
+        delivered[0] = 0;
+        elevator.addRequest(new Request(floors - 1, Direction.DOWN, 0, 1));
+        for (int i = 0; i < 100 && delivered[0] == 0; i++) {
+            elevator.step();
+            pump.pollOnce();
+        }
+        check(delivered[0] > 0, "насос: новые события после пересинхронизации доходят");
+        checkEqual(1, resyncs[0], "насос: без новых потерь пересинхронизации нет");
+    }
+
+    private static void waitingByFloor() {
+        Elevator elevator = new Elevator(0, CONFIG, ElevatorEventListener.NONE);
+        elevator.addRequest(new Request(3, Direction.UP, 7, 1));
+        elevator.addRequest(new Request(3, Direction.DOWN, 1, 2));
+        elevator.addRequest(new Request(9, Direction.DOWN, 0, 3));
+        int[] waiting = new int[CONFIG.getTotalFloors()];
+        elevator.countWaitingByFloor(waiting);
+        checkEqual(2, waiting[3], "ожидающие на этаже 4 (вверх и вниз)");
+        checkEqual(1, waiting[9], "ожидающие на этаже 10");
+        checkEqual(0, waiting[0], "ожидающие на этаже 1");
+    }
+}
@@ -0,0 +1,85 @@
+package com.elevator.trace;
+
+import static com.elevator.ElevatorSystemTest.check;
+import static com.elevator.ElevatorSystemTest.checkEqual;
+
+import com.elevator.config.BuildingConfig;
+import com.elevator.core.Building;
+import com.elevator.elevator.Direction;
+import com.elevator.request.Request;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// трасса: запись и чтение дают те же запросы, в том числе на этажах от 32768 до верхнего
+// (этаж в записи - беззнаковый short), и через BankRouter здания с MAX_TOTAL_FLOORS этажей
+public class TraceCheck {
+    private static final int TOP = BuildingConfig.MAX_TOTAL_FLOORS - 1;
+
+    public static void runAll() {
+        try {
+            roundTrip();
+            recordThroughRouter();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void roundTrip() throws IOException {
+        Request[] requests = {
+                new Request(0, Direction.UP, TOP, 1_000),
+                new Request(TOP, Direction.DOWN, 0, 1_500),
+                new Request(32_767, Direction.UP, 32_768, 1_500),
+                new Request(32_768, Direction.DOWN, 32_767, 61_500),
+                new Request(TOP - 1, Direction.UP, TOP, 61_501),
+        };
+        Path file = Files.createTempFile("trace", ".eltr");
+        try {
+            try (TraceRecorder recorder = new TraceRecorder(file, BuildingConfig.MAX_TOTAL_FLOORS)) {
+                for (Request request : requests) {
+                    recorder.record(request);
+                }
+            }
+            try (TraceReader reader = new TraceReader(file)) {
+                checkEqual(BuildingConfig.MAX_TOTAL_FLOORS, reader.getTotalFloors(), "трасса: этажей в заголовке");
+                checkEqual(requests.length, reader.getCount(), "трасса: записей");
+                for (Request expected : requests) {
+                    Request actual = reader.next();
+                    String what = "трасса: запрос " + expected.getCallFloor() + " -> " + expected.getTargetFloor();
+                    checkEqual(expected.getCallFloor(), actual.getCallFloor(), what + ", этаж вызова");
+                    checkEqual(expected.getTargetFloor(), actual.getTargetFloor(), what + ", целевой этаж");
+                    check(expected.getDirection() == actual.getDirection(), what + ", направление");
+                    checkEqual(expected.getTimestamp(), actual.getTimestamp(), what + ", время");
+                }
+                check(!reader.hasNext(), "трасса: лишних записей нет");
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // запись идёт после назначения: запрос с верхнего этажа назначен и записан
+    private static void recordThroughRouter() throws IOException {
+        BuildingConfig config = BuildingConfig.defaults()
+                .withArgs(new String[]{"floors=" + BuildingConfig.MAX_TOTAL_FLOORS, "elevators=2"});
+        Building building = new Building(config, null);
+        Path file = Files.createTempFile("trace", ".eltr");
+        try {
+            try (TraceRecorder recorder = new TraceRecorder(file, config.getTotalFloors())) {
+                building.getRouter().setTraceRecorder(recorder);
+                building.getRouter().handleRequest(new Request(TOP, Direction.DOWN, 40_000, 5));
+                checkEqual(1, recorder.getCount(), "трасса через маршрутизатор: записан запрос");
+            }
+            check(building.getElevators().get(0).hasPendingCalls() || building.getElevators().get(1).hasPendingCalls(),
+                    "трасса через маршрутизатор: запрос назначен лифту");
+            try (TraceReader reader = new TraceReader(file)) {
+                Request replayed = reader.next();
+                checkEqual(TOP, replayed.getCallFloor(), "повтор трассы: этаж вызова");
+                checkEqual(40_000, replayed.getTargetFloor(), "повтор трассы: целевой этаж");
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}